@@ -0,0 +1,38 @@
+package com.mvhespanholo.taskzen.config;
+
+import com.mvhespanholo.taskzen.monitoramento.ConsultaListener;
+import com.mvhespanholo.taskzen.monitoramento.PerfilConsultas;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+@Configuration
+@ConditionalOnProperty(name = "taskzen.perfil.habilitado", havingValue = "true", matchIfMissing = true)
+public class DataSourceProxyConfig {
+
+    // Envolve o DataSource do repositório com o proxy que mede cada comando SQL
+    @Bean
+    public static BeanPostProcessor dataSourceProxyPostProcessor(ObjectProvider<PerfilConsultas> perfilConsultas) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)) {
+                    ConsultaListener listener = new ConsultaListener(perfilConsultas.getObject(), dataSource);
+                    return ProxyDataSourceBuilder.create(dataSource)
+                            .name(beanName)
+                            .listener(listener)
+                            .jdbcProxyFactory(listener.getProxyFactory())
+                            .proxyResultSet()
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+}
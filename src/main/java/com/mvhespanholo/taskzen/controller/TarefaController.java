@@ -1,8 +1,11 @@
 package com.mvhespanholo.taskzen.controller;
 
+import com.mvhespanholo.taskzen.exception.FiltroInvalidoException;
+import com.mvhespanholo.taskzen.model.PaginaTarefas;
 import com.mvhespanholo.taskzen.model.Tarefa;
 import com.mvhespanholo.taskzen.service.TarefaService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -27,10 +30,27 @@ public class TarefaController {
 
     @Operation(summary = "Atualiza uma tarefa existente")
     @PutMapping("/{id}")
-    public ResponseEntity<Tarefa> atualizar(@PathVariable Long id, @RequestBody Tarefa tarefa) {
+    public ResponseEntity<Tarefa> atualizar(
+            @PathVariable Long id,
+            @RequestParam(required = false, defaultValue = "false") boolean assincrono,
+            @RequestBody Tarefa tarefa) {
+
+        if (assincrono) {
+            service.atualizarTarefaAssincrona(id, tarefa);
+            return ResponseEntity.accepted().build();
+        }
         return ResponseEntity.ok(service.atualizarTarefa(id, tarefa));
     }
 
+    @Operation(summary = "Aguarda a gravação das atualizações assíncronas pendentes")
+    @PostMapping("/sincronizar")
+    public ResponseEntity<Void> sincronizar() {
+        if (service.aguardarEscritasPendentes()) {
+            return ResponseEntity.noContent().build();
+        }
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+    }
+
     @Operation(summary = "Deleta uma tarefa pelo ID")
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deletar(@PathVariable Long id) {
@@ -38,13 +58,45 @@ public class TarefaController {
         return ResponseEntity.noContent().build();
     }
 
-    @Operation(summary = "Lista todas as tarefas com filtros opcionais")
+    @Operation(summary = "Lista todas as tarefas com filtros opcionais",
+            description = "O parâmetro filtro aceita expressões como: status in (Pendente, 'Em andamento') and dataCriacao > 2024-01-01 and nome ~ 'estudar'")
     @GetMapping
     public ResponseEntity<List<Tarefa>> listar(
             @RequestParam(required = false) String status,
             @RequestParam(required = false) String nome,
+            @RequestParam(required = false) String filtro,
+            @RequestParam(required = false) String ordenarPor,
             @RequestParam(required = false, defaultValue = "desc") String ordem) {
 
+        if (filtro != null || ordenarPor != null) {
+            if (status != null || nome != null) {
+                throw new FiltroInvalidoException("Use o parâmetro filtro ou os parâmetros status e nome, não ambos");
+            }
+            return ResponseEntity.ok(service.consultarTarefas(filtro, ordenarPor, ordem));
+        }
         return ResponseEntity.ok(service.filtrarTarefas(status, nome, ordem));
     }
+
+    @Operation(summary = "Busca tarefas por status e tags usando o índice em memória")
+    @GetMapping("/busca")
+    public ResponseEntity<PaginaTarefas> buscar(
+            @RequestParam(required = false) List<String> status,
+            @RequestParam(required = false) List<String> tag,
+            @RequestParam(required = false) List<String> semTag,
+            @RequestParam(required = false, defaultValue = "0") int pagina,
+            @RequestParam(required = false, defaultValue = "20") int tamanho,
+            @RequestParam(required = false, defaultValue = "desc") String ordem) {
+
+        return ResponseEntity.ok(service.buscarTarefas(status, tag, semTag, pagina, tamanho, ordem));
+    }
+
+    @Operation(summary = "Conta as tarefas por status e tags usando o índice em memória")
+    @GetMapping("/busca/contagem")
+    public ResponseEntity<Long> contar(
+            @RequestParam(required = false) List<String> status,
+            @RequestParam(required = false) List<String> tag,
+            @RequestParam(required = false) List<String> semTag) {
+
+        return ResponseEntity.ok(service.contarTarefas(status, tag, semTag));
+    }
 }
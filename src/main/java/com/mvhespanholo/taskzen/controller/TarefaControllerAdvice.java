@@ -1,6 +1,12 @@
 package com.mvhespanholo.taskzen.controller;
 
+import com.mvhespanholo.taskzen.exception.EscritaAssincronaIndisponivelException;
+import com.mvhespanholo.taskzen.exception.FiltroInvalidoException;
+import com.mvhespanholo.taskzen.exception.IndiceIndisponivelException;
+import com.mvhespanholo.taskzen.exception.PaginacaoInvalidaException;
 import com.mvhespanholo.taskzen.exception.TarefaNaoEncontradaException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -27,6 +33,54 @@ public class TarefaControllerAdvice {
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(errorResponse);
     }
 
+    // Tratamento para EscritaAssincronaIndisponivelException
+    @ExceptionHandler(EscritaAssincronaIndisponivelException.class)
+    public ResponseEntity<Map<String, Object>> handleEscritaAssincronaIndisponivelException(EscritaAssincronaIndisponivelException ex) {
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("timestamp", LocalDateTime.now());
+        errorResponse.put("status", HttpStatus.SERVICE_UNAVAILABLE.value());
+        errorResponse.put("error", "Escrita assíncrona indisponível");
+        errorResponse.put("message", ex.getMessage());
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(errorResponse);
+    }
+
+    // Tratamento para IndiceIndisponivelException
+    @ExceptionHandler(IndiceIndisponivelException.class)
+    public ResponseEntity<Map<String, Object>> handleIndiceIndisponivelException(IndiceIndisponivelException ex) {
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("timestamp", LocalDateTime.now());
+        errorResponse.put("status", HttpStatus.SERVICE_UNAVAILABLE.value());
+        errorResponse.put("error", "Índice indisponível");
+        errorResponse.put("message", ex.getMessage());
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(errorResponse);
+    }
+
+    // Tratamento para FiltroInvalidoException
+    @ExceptionHandler(FiltroInvalidoException.class)
+    public ResponseEntity<Map<String, Object>> handleFiltroInvalidoException(FiltroInvalidoException ex) {
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("timestamp", LocalDateTime.now());
+        errorResponse.put("status", HttpStatus.BAD_REQUEST.value());
+        errorResponse.put("error", "Filtro inválido");
+        errorResponse.put("message", ex.getMessage());
+
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+    }
+
+    // Tratamento para PaginacaoInvalidaException
+    @ExceptionHandler(PaginacaoInvalidaException.class)
+    public ResponseEntity<Map<String, Object>> handlePaginacaoInvalidaException(PaginacaoInvalidaException ex) {
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("timestamp", LocalDateTime.now());
+        errorResponse.put("status", HttpStatus.BAD_REQUEST.value());
+        errorResponse.put("error", "Paginação inválida");
+        errorResponse.put("message", ex.getMessage());
+
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+    }
+
     // Tratamento para erros de validação
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<Map<String, Object>> handleValidationExceptions(MethodArgumentNotValidException ex) {
@@ -45,6 +99,23 @@ public class TarefaControllerAdvice {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
     }
 
+    // Tratamento para erros de validação fora do binding, como nas atualizações assíncronas
+    @ExceptionHandler(ConstraintViolationException.class)
+    public ResponseEntity<Map<String, Object>> handleConstraintViolationException(ConstraintViolationException ex) {
+        Map<String, Object> errorResponse = new HashMap<>();
+        errorResponse.put("timestamp", LocalDateTime.now());
+        errorResponse.put("status", HttpStatus.BAD_REQUEST.value());
+        errorResponse.put("error", "Erro de validação");
+
+        Map<String, String> fieldErrors = new HashMap<>();
+        for (ConstraintViolation<?> violation : ex.getConstraintViolations()) {
+            fieldErrors.put(violation.getPropertyPath().toString(), violation.getMessage());
+        }
+        errorResponse.put("fieldErrors", fieldErrors);
+
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorResponse);
+    }
+
     // Tratamento para exceções genéricas
     @ExceptionHandler(Exception.class)
     public ResponseEntity<Map<String, Object>> handleGenericExceptions(Exception ex) {
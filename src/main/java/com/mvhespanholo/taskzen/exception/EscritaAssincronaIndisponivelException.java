@@ -0,0 +1,7 @@
+package com.mvhespanholo.taskzen.exception;
+
+public class EscritaAssincronaIndisponivelException extends RuntimeException {
+    public EscritaAssincronaIndisponivelException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package com.mvhespanholo.taskzen.exception;
+
+public class FiltroInvalidoException extends RuntimeException {
+    public FiltroInvalidoException(String message) {
+        super(message);
+    }
+}
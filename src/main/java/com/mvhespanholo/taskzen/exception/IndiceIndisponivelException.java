@@ -0,0 +1,7 @@
+package com.mvhespanholo.taskzen.exception;
+
+public class IndiceIndisponivelException extends RuntimeException {
+    public IndiceIndisponivelException(String message) {
+        super(message);
+    }
+}
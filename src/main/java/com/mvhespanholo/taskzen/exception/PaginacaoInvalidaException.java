@@ -0,0 +1,7 @@
+package com.mvhespanholo.taskzen.exception;
+
+public class PaginacaoInvalidaException extends RuntimeException {
+    public PaginacaoInvalidaException(String message) {
+        super(message);
+    }
+}
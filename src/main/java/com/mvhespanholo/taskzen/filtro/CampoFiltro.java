@@ -0,0 +1,61 @@
+package com.mvhespanholo.taskzen.filtro;
+
+import com.mvhespanholo.taskzen.exception.FiltroInvalidoException;
+
+import java.util.Arrays;
+import java.util.Set;
+
+/**
+ * Campos de {@link com.mvhespanholo.taskzen.model.Tarefa} que podem ser usados em filtros,
+ * com o tipo usado para converter os literais e os operadores aceitos.
+ */
+public enum CampoFiltro {
+    ID("id", Tipo.NUMERO),
+    NOME("nome", Tipo.TEXTO),
+    DESCRICAO("descricao", Tipo.TEXTO),
+    STATUS("status", Tipo.TEXTO),
+    OBSERVACOES("observacoes", Tipo.TEXTO),
+    TAGS("tags", Tipo.TAG),
+    DATA_CRIACAO("dataCriacao", Tipo.DATA),
+    DATA_ATUALIZACAO("dataAtualizacao", Tipo.DATA);
+
+    public enum Tipo {
+        TEXTO(Set.of("=", "!=", "in", "~")),
+        NUMERO(Set.of("=", "!=", ">", ">=", "<", "<=", "in")),
+        DATA(Set.of("=", "!=", ">", ">=", "<", "<=", "in")),
+        TAG(Set.of("=", "!="));
+
+        private final Set<String> operadores;
+
+        Tipo(Set<String> operadores) {
+            this.operadores = operadores;
+        }
+    }
+
+    private final String propriedade;
+    private final Tipo tipo;
+
+    CampoFiltro(String propriedade, Tipo tipo) {
+        this.propriedade = propriedade;
+        this.tipo = tipo;
+    }
+
+    public String getPropriedade() {
+        return propriedade;
+    }
+
+    public Tipo getTipo() {
+        return tipo;
+    }
+
+    public boolean aceita(String operador) {
+        return tipo.operadores.contains(operador);
+    }
+
+    public static CampoFiltro porNome(String nome) {
+        return Arrays.stream(values())
+                .filter(c -> c.propriedade.equalsIgnoreCase(nome))
+                .findFirst()
+                .orElseThrow(() -> new FiltroInvalidoException("Campo desconhecido no filtro: " + nome));
+    }
+}
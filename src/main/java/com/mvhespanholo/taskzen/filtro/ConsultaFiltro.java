@@ -0,0 +1,6 @@
+package com.mvhespanholo.taskzen.filtro;
+
+import java.util.List;
+
+public record ConsultaFiltro(PlanoConsulta plano, List<Object> parametros) {
+}
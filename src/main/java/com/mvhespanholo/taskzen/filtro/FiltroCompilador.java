@@ -0,0 +1,128 @@
+package com.mvhespanholo.taskzen.filtro;
+
+import com.mvhespanholo.taskzen.exception.FiltroInvalidoException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Compila expressões de filtro em consultas JPQL parametrizadas. Os planos ficam em um
+ * cache LRU indexado pela forma normalizada do filtro, então filtros repetidos só passam
+ * pela tokenização e pela conversão dos literais.
+ */
+@Component
+public class FiltroCompilador {
+
+    private final Map<String, PlanoConsulta> cache;
+
+    public FiltroCompilador(@Value("${taskzen.filtro.cache-tamanho:512}") int tamanhoCache) {
+        this.cache = Collections.synchronizedMap(new LinkedHashMap<String, PlanoConsulta>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PlanoConsulta> maisAntigo) {
+                return size() > tamanhoCache;
+            }
+        });
+    }
+
+    public ConsultaFiltro compilar(String filtro, String ordenarPor, String ordem) {
+        FormaFiltro forma = filtro == null || filtro.isBlank()
+                ? new FormaFiltro(List.of(), "", List.of())
+                : FormaFiltro.de(filtro);
+        CampoFiltro campoOrdem = CampoFiltro.porNome(ordenarPor != null ? ordenarPor : "dataCriacao");
+        if (campoOrdem.getTipo() == CampoFiltro.Tipo.TAG) {
+            throw new FiltroInvalidoException("Não é possível ordenar por " + campoOrdem.getPropriedade());
+        }
+        String direcao = ordem != null && ordem.equalsIgnoreCase("asc") ? "asc" : "desc";
+
+        String chave = forma.chave() + " order by " + campoOrdem.getPropriedade() + " " + direcao;
+        PlanoConsulta plano = cache.get(chave);
+        if (plano == null) {
+            plano = gerarPlano(forma, campoOrdem, direcao);
+            cache.put(chave, plano);
+        }
+        return new ConsultaFiltro(plano, plano.parametros(forma.valores()));
+    }
+
+    public int getTamanhoCache() {
+        return cache.size();
+    }
+
+    private PlanoConsulta gerarPlano(FormaFiltro forma, CampoFiltro campoOrdem, String direcao) {
+        List<Function<Object, Object>> conversores = new ArrayList<>(Collections.nCopies(forma.valores().size(), null));
+        StringBuilder jpql = new StringBuilder("select t from Tarefa t");
+        if (!forma.tokens().isEmpty()) {
+            jpql.append(" where ").append(traduzir(FiltroParser.analisar(forma), conversores));
+        }
+        jpql.append(" order by t.").append(campoOrdem.getPropriedade()).append(' ').append(direcao);
+        // Desempate pelo ID: a ordem fica estável entre páginas consultadas separadamente
+        if (campoOrdem != CampoFiltro.ID) {
+            jpql.append(", t.id ").append(direcao);
+        }
+        return new PlanoConsulta(jpql.toString(), List.copyOf(conversores));
+    }
+
+    private String traduzir(NoFiltro no, List<Function<Object, Object>> conversores) {
+        if (no instanceof NoFiltro.E e) {
+            return "(" + traduzir(e.esquerda(), conversores) + " and " + traduzir(e.direita(), conversores) + ")";
+        }
+        if (no instanceof NoFiltro.Ou ou) {
+            return "(" + traduzir(ou.esquerda(), conversores) + " or " + traduzir(ou.direita(), conversores) + ")";
+        }
+        if (no instanceof NoFiltro.Nao nao) {
+            return "not (" + traduzir(nao.expressao(), conversores) + ")";
+        }
+        NoFiltro.Comparacao comparacao = (NoFiltro.Comparacao) no;
+        CampoFiltro campo = comparacao.campo();
+        String caminho = "t." + campo.getPropriedade();
+        String parametro = ":p" + comparacao.parametro();
+        Function<Object, Object> conversor = valor -> converter(campo, (String) valor);
+
+        String jpql = switch (comparacao.operador()) {
+            case "in" -> {
+                conversor = valores -> ((List<?>) valores).stream()
+                        .map(v -> converter(campo, (String) v))
+                        .toList();
+                yield caminho + " in " + parametro;
+            }
+            case "~" -> {
+                conversor = valor -> "%" + escaparLike(((String) valor).toLowerCase(Locale.ROOT)) + "%";
+                yield "lower(" + caminho + ") like " + parametro + " escape '\\'";
+            }
+            case "=" -> campo.getTipo() == CampoFiltro.Tipo.TAG
+                    ? parametro + " member of " + caminho
+                    : caminho + " = " + parametro;
+            case "!=" -> campo.getTipo() == CampoFiltro.Tipo.TAG
+                    ? parametro + " not member of " + caminho
+                    : caminho + " <> " + parametro;
+            default -> caminho + " " + comparacao.operador() + " " + parametro;
+        };
+        conversores.set(comparacao.parametro(), conversor);
+        return jpql;
+    }
+
+    private static Object converter(CampoFiltro campo, String valor) {
+        try {
+            return switch (campo.getTipo()) {
+                case NUMERO -> Long.parseLong(valor);
+                case DATA -> valor.contains("T") ? LocalDateTime.parse(valor) : LocalDate.parse(valor).atStartOfDay();
+                default -> valor;
+            };
+        } catch (NumberFormatException | DateTimeParseException e) {
+            throw new FiltroInvalidoException("Valor inválido para o campo " + campo.getPropriedade() + ": " + valor);
+        }
+    }
+
+    private static String escaparLike(String valor) {
+        return valor.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
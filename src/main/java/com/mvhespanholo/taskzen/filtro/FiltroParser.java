@@ -0,0 +1,109 @@
+package com.mvhespanholo.taskzen.filtro;
+
+import com.mvhespanholo.taskzen.exception.FiltroInvalidoException;
+import com.mvhespanholo.taskzen.filtro.FormaFiltro.TipoToken;
+import com.mvhespanholo.taskzen.filtro.FormaFiltro.Token;
+
+import java.util.List;
+
+/**
+ * Analisador descendente recursivo para a forma normalizada de um filtro.
+ * Precedência: not, and, or; parênteses agrupam expressões.
+ */
+public class FiltroParser {
+
+    // Limita a recursão de parênteses e "not" para não estourar a pilha
+    public static final int PROFUNDIDADE_MAXIMA = 32;
+
+    private final List<Token> tokens;
+    private int posicao;
+    private int profundidade;
+
+    private FiltroParser(List<Token> tokens) {
+        this.tokens = tokens;
+    }
+
+    public static NoFiltro analisar(FormaFiltro forma) {
+        FiltroParser parser = new FiltroParser(forma.tokens());
+        NoFiltro raiz = parser.expressao();
+        if (parser.posicao < parser.tokens.size()) {
+            throw new FiltroInvalidoException("Token inesperado no filtro: " + parser.tokens.get(parser.posicao).texto());
+        }
+        return raiz;
+    }
+
+    private NoFiltro expressao() {
+        NoFiltro no = termo();
+        while (aceitar(TipoToken.OR)) {
+            no = new NoFiltro.Ou(no, termo());
+        }
+        return no;
+    }
+
+    private NoFiltro termo() {
+        NoFiltro no = fator();
+        while (aceitar(TipoToken.AND)) {
+            no = new NoFiltro.E(no, fator());
+        }
+        return no;
+    }
+
+    private NoFiltro fator() {
+        if (aceitar(TipoToken.NOT)) {
+            entrar();
+            NoFiltro no = new NoFiltro.Nao(fator());
+            profundidade--;
+            return no;
+        }
+        if (aceitar(TipoToken.ABRE)) {
+            entrar();
+            NoFiltro no = expressao();
+            esperar(TipoToken.FECHA, "')' esperado");
+            profundidade--;
+            return no;
+        }
+        return comparacao();
+    }
+
+    private void entrar() {
+        if (++profundidade > PROFUNDIDADE_MAXIMA) {
+            throw new FiltroInvalidoException("O filtro excede a profundidade máxima de " + PROFUNDIDADE_MAXIMA + " níveis");
+        }
+    }
+
+    private NoFiltro comparacao() {
+        CampoFiltro campo = CampoFiltro.porNome(esperar(TipoToken.CAMPO, "Campo esperado").texto());
+        Token operador = atual();
+        if (operador == null || (operador.tipo() != TipoToken.OPERADOR && operador.tipo() != TipoToken.IN)) {
+            throw new FiltroInvalidoException("Operador esperado após " + campo.getPropriedade());
+        }
+        posicao++;
+        if (!campo.aceita(operador.texto())) {
+            throw new FiltroInvalidoException("Operador " + operador.texto() + " não é aceito pelo campo " + campo.getPropriedade());
+        }
+        Token parametro = esperar(TipoToken.PARAMETRO, "Valor esperado após " + operador.texto());
+        return new NoFiltro.Comparacao(campo, operador.texto(), parametro.parametro());
+    }
+
+    private Token atual() {
+        return posicao < tokens.size() ? tokens.get(posicao) : null;
+    }
+
+    private boolean aceitar(TipoToken tipo) {
+        Token token = atual();
+        if (token != null && token.tipo() == tipo) {
+            posicao++;
+            return true;
+        }
+        return false;
+    }
+
+    private Token esperar(TipoToken tipo, String mensagem) {
+        Token token = atual();
+        if (token == null || token.tipo() != tipo) {
+            throw new FiltroInvalidoException(mensagem + (token == null ? " no fim do filtro" : ", encontrado: " + token.texto()));
+        }
+        posicao++;
+        return token;
+    }
+}
@@ -0,0 +1,154 @@
+package com.mvhespanholo.taskzen.filtro;
+
+import com.mvhespanholo.taskzen.exception.FiltroInvalidoException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Forma normalizada de uma expressão de filtro: os tokens com os literais trocados
+ * por parâmetros, a chave textual dessa forma e os valores extraídos, em ordem.
+ * Filtros que diferem apenas nos literais, em espaços ou em maiúsculas compartilham a chave.
+ */
+public record FormaFiltro(List<Token> tokens, String chave, List<Object> valores) {
+
+    public enum TipoToken { CAMPO, OPERADOR, IN, AND, OR, NOT, ABRE, FECHA, PARAMETRO }
+
+    public record Token(TipoToken tipo, String texto, int parametro) {
+    }
+
+    // Também limita a profundidade da árvore gerada por longas cadeias de and/or
+    public static final int TAMANHO_MAXIMO = 1000;
+
+    private static final Set<String> OPERADORES = Set.of("=", "!=", ">", ">=", "<", "<=", "~");
+
+    public static FormaFiltro de(String filtro) {
+        if (filtro.length() > TAMANHO_MAXIMO) {
+            throw new FiltroInvalidoException("O filtro deve ter no máximo " + TAMANHO_MAXIMO + " caracteres");
+        }
+        List<String> lexemas = tokenizar(filtro);
+        List<Token> tokens = new ArrayList<>();
+        List<Object> valores = new ArrayList<>();
+        StringBuilder chave = new StringBuilder();
+
+        int i = 0;
+        while (i < lexemas.size()) {
+            String lexema = lexemas.get(i);
+            String minusculo = lexema.toLowerCase(Locale.ROOT);
+            Token token;
+            if (OPERADORES.contains(lexema)) {
+                // Após um operador vem sempre um único literal
+                valores.add(literal(lexemas, ++i, lexema));
+                tokens.add(new Token(TipoToken.OPERADOR, lexema, -1));
+                token = new Token(TipoToken.PARAMETRO, "?", valores.size() - 1);
+                chave.append(lexema).append(' ');
+            } else if (minusculo.equals("in")) {
+                // A lista inteira vira um único parâmetro, independente do número de itens
+                i = lerLista(lexemas, i + 1, valores);
+                tokens.add(new Token(TipoToken.IN, "in", -1));
+                token = new Token(TipoToken.PARAMETRO, "(?)", valores.size() - 1);
+                chave.append("in ");
+            } else if (lexema.equals("(")) {
+                token = new Token(TipoToken.ABRE, "(", -1);
+            } else if (lexema.equals(")")) {
+                token = new Token(TipoToken.FECHA, ")", -1);
+            } else if (minusculo.equals("and")) {
+                token = new Token(TipoToken.AND, "and", -1);
+            } else if (minusculo.equals("or")) {
+                token = new Token(TipoToken.OR, "or", -1);
+            } else if (minusculo.equals("not")) {
+                token = new Token(TipoToken.NOT, "not", -1);
+            } else if (lexema.startsWith("'") || lexema.equals(",")) {
+                throw new FiltroInvalidoException("Token inesperado no filtro: " + lexema);
+            } else {
+                token = new Token(TipoToken.CAMPO, minusculo, -1);
+            }
+            tokens.add(token);
+            chave.append(token.texto()).append(' ');
+            i++;
+        }
+        return new FormaFiltro(tokens, chave.toString().trim(), valores);
+    }
+
+    private static String literal(List<String> lexemas, int i, String anterior) {
+        if (i >= lexemas.size()) {
+            throw new FiltroInvalidoException("Valor ausente após " + anterior);
+        }
+        String lexema = lexemas.get(i);
+        if (lexema.startsWith("'")) {
+            return lexema.substring(1);
+        }
+        if ((lexema.length() == 1 && "(),".contains(lexema)) || OPERADORES.contains(lexema)) {
+            throw new FiltroInvalidoException("Valor esperado após " + anterior + ", encontrado: " + lexema);
+        }
+        return lexema;
+    }
+
+    private static int lerLista(List<String> lexemas, int i, List<Object> valores) {
+        if (i >= lexemas.size() || !lexemas.get(i).equals("(")) {
+            throw new FiltroInvalidoException("Lista entre parênteses esperada após in");
+        }
+        List<String> itens = new ArrayList<>();
+        do {
+            i++;
+            itens.add(literal(lexemas, i, "("));
+            i++;
+        } while (i < lexemas.size() && lexemas.get(i).equals(","));
+        if (i >= lexemas.size() || !lexemas.get(i).equals(")")) {
+            throw new FiltroInvalidoException("Lista do operador in não foi fechada");
+        }
+        valores.add(itens);
+        return i;
+    }
+
+    // Literais entre aspas simples são devolvidos com a aspa inicial para diferenciá-los de campos
+    private static List<String> tokenizar(String filtro) {
+        List<String> lexemas = new ArrayList<>();
+        int i = 0;
+        while (i < filtro.length()) {
+            char c = filtro.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (c == '\'') {
+                StringBuilder texto = new StringBuilder("'");
+                i++;
+                while (true) {
+                    if (i >= filtro.length()) {
+                        throw new FiltroInvalidoException("Texto entre aspas não foi fechado");
+                    }
+                    if (filtro.charAt(i) == '\'') {
+                        if (i + 1 < filtro.length() && filtro.charAt(i + 1) == '\'') {
+                            texto.append('\'');
+                            i += 2;
+                            continue;
+                        }
+                        i++;
+                        break;
+                    }
+                    texto.append(filtro.charAt(i++));
+                }
+                lexemas.add(texto.toString());
+            } else if ("(),~=".indexOf(c) >= 0) {
+                lexemas.add(String.valueOf(c));
+                i++;
+            } else if (c == '!' || c == '<' || c == '>') {
+                boolean composto = i + 1 < filtro.length() && filtro.charAt(i + 1) == '=';
+                if (c == '!' && !composto) {
+                    throw new FiltroInvalidoException("Operador inválido no filtro: !");
+                }
+                lexemas.add(composto ? c + "=" : String.valueOf(c));
+                i += composto ? 2 : 1;
+            } else {
+                int inicio = i;
+                while (i < filtro.length() && !Character.isWhitespace(filtro.charAt(i))
+                        && "(),~=!<>'".indexOf(filtro.charAt(i)) < 0) {
+                    i++;
+                }
+                lexemas.add(filtro.substring(inicio, i));
+            }
+        }
+        return lexemas;
+    }
+}
@@ -0,0 +1,20 @@
+package com.mvhespanholo.taskzen.filtro;
+
+/**
+ * Árvore sintática de uma expressão de filtro. Os literais não fazem parte da árvore:
+ * cada comparação guarda apenas o índice do parâmetro que receberá o valor.
+ */
+public sealed interface NoFiltro {
+
+    record E(NoFiltro esquerda, NoFiltro direita) implements NoFiltro {
+    }
+
+    record Ou(NoFiltro esquerda, NoFiltro direita) implements NoFiltro {
+    }
+
+    record Nao(NoFiltro expressao) implements NoFiltro {
+    }
+
+    record Comparacao(CampoFiltro campo, String operador, int parametro) implements NoFiltro {
+    }
+}
@@ -0,0 +1,21 @@
+package com.mvhespanholo.taskzen.filtro;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Consulta JPQL parametrizada compilada a partir da forma de um filtro. O texto é estável
+ * para a mesma forma, o que permite reaproveitar o cache de planos do Hibernate e os
+ * prepared statements do driver; os conversores transformam cada literal no valor do parâmetro.
+ */
+public record PlanoConsulta(String jpql, List<Function<Object, Object>> conversores) {
+
+    public List<Object> parametros(List<Object> valores) {
+        List<Object> parametros = new ArrayList<>(valores.size());
+        for (int i = 0; i < valores.size(); i++) {
+            parametros.add(conversores.get(i).apply(valores.get(i)));
+        }
+        return parametros;
+    }
+}
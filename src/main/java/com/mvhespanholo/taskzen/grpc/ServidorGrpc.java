@@ -0,0 +1,72 @@
+package com.mvhespanholo.taskzen.grpc;
+
+import io.grpc.BindableService;
+import io.grpc.Server;
+import io.grpc.netty.shaded.io.grpc.netty.NettyServerBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Servidor gRPC executado ao lado do servidor HTTP, com o mesmo ciclo de vida do contexto Spring
+@Component
+@ConditionalOnProperty(name = "taskzen.grpc.habilitado", havingValue = "true", matchIfMissing = true)
+public class ServidorGrpc implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(ServidorGrpc.class);
+
+    private final List<BindableService> servicos;
+    private final int porta;
+    private final long timeoutEncerramentoMs;
+    private volatile Server servidor;
+
+    public ServidorGrpc(List<BindableService> servicos,
+                        @Value("${taskzen.grpc.porta:9090}") int porta,
+                        @Value("${taskzen.grpc.timeout-encerramento-ms:10000}") long timeoutEncerramentoMs) {
+        this.servicos = servicos;
+        this.porta = porta;
+        this.timeoutEncerramentoMs = timeoutEncerramentoMs;
+    }
+
+    @Override
+    public void start() {
+        NettyServerBuilder builder = NettyServerBuilder.forPort(porta);
+        servicos.forEach(builder::addService);
+        try {
+            servidor = builder.build().start();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Não foi possível iniciar o servidor gRPC na porta " + porta, e);
+        }
+        log.info("Servidor gRPC iniciado na porta {}", servidor.getPort());
+    }
+
+    @Override
+    public void stop() {
+        Server atual = servidor;
+        if (atual == null) {
+            return;
+        }
+        atual.shutdown();
+        try {
+            if (!atual.awaitTermination(timeoutEncerramentoMs, TimeUnit.MILLISECONDS)) {
+                atual.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            atual.shutdownNow();
+        }
+        servidor = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return servidor != null;
+    }
+}
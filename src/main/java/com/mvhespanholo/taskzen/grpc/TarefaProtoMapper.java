@@ -0,0 +1,57 @@
+package com.mvhespanholo.taskzen.grpc;
+
+import com.google.protobuf.Timestamp;
+import com.mvhespanholo.taskzen.grpc.proto.TarefaMensagem;
+import com.mvhespanholo.taskzen.model.Tarefa;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashSet;
+
+// Conversão entre a entidade Tarefa e a mensagem protobuf; datas trafegam como Timestamp binário
+public final class TarefaProtoMapper {
+
+    private static final ZoneId ZONA = ZoneId.systemDefault();
+
+    private TarefaProtoMapper() {
+    }
+
+    public static TarefaMensagem paraMensagem(Tarefa tarefa) {
+        TarefaMensagem.Builder builder = TarefaMensagem.newBuilder();
+        if (tarefa.getId() != null) builder.setId(tarefa.getId());
+        if (tarefa.getNome() != null) builder.setNome(tarefa.getNome());
+        if (tarefa.getDescricao() != null) builder.setDescricao(tarefa.getDescricao());
+        if (tarefa.getStatus() != null) builder.setStatus(tarefa.getStatus());
+        if (tarefa.getObservacoes() != null) builder.setObservacoes(tarefa.getObservacoes());
+        if (tarefa.getTags() != null) builder.addAllTags(tarefa.getTags());
+        if (tarefa.getDataCriacao() != null) builder.setDataCriacao(paraTimestamp(tarefa.getDataCriacao()));
+        if (tarefa.getDataAtualizacao() != null) builder.setDataAtualizacao(paraTimestamp(tarefa.getDataAtualizacao()));
+        return builder.build();
+    }
+
+    public static Tarefa paraTarefa(TarefaMensagem mensagem) {
+        Tarefa tarefa = new Tarefa();
+        if (mensagem.getId() != 0) tarefa.setId(mensagem.getId());
+        if (mensagem.hasNome()) tarefa.setNome(mensagem.getNome());
+        if (mensagem.hasDescricao()) tarefa.setDescricao(mensagem.getDescricao());
+        if (mensagem.hasStatus()) tarefa.setStatus(mensagem.getStatus());
+        if (mensagem.hasObservacoes()) tarefa.setObservacoes(mensagem.getObservacoes());
+        tarefa.setTags(new HashSet<>(mensagem.getTagsList()));
+        if (mensagem.hasDataCriacao()) tarefa.setDataCriacao(paraLocalDateTime(mensagem.getDataCriacao()));
+        if (mensagem.hasDataAtualizacao()) tarefa.setDataAtualizacao(paraLocalDateTime(mensagem.getDataAtualizacao()));
+        return tarefa;
+    }
+
+    static Timestamp paraTimestamp(LocalDateTime data) {
+        Instant instante = data.atZone(ZONA).toInstant();
+        return Timestamp.newBuilder()
+                .setSeconds(instante.getEpochSecond())
+                .setNanos(instante.getNano())
+                .build();
+    }
+
+    static LocalDateTime paraLocalDateTime(Timestamp timestamp) {
+        return LocalDateTime.ofInstant(Instant.ofEpochSecond(timestamp.getSeconds(), timestamp.getNanos()), ZONA);
+    }
+}
@@ -0,0 +1,255 @@
+package com.mvhespanholo.taskzen.grpc;
+
+import com.google.protobuf.Any;
+import com.google.protobuf.Empty;
+import com.mvhespanholo.taskzen.exception.EscritaAssincronaIndisponivelException;
+import com.mvhespanholo.taskzen.exception.FiltroInvalidoException;
+import com.mvhespanholo.taskzen.exception.TarefaNaoEncontradaException;
+import com.mvhespanholo.taskzen.grpc.proto.AtualizarTarefaRequest;
+import com.mvhespanholo.taskzen.grpc.proto.CriarTarefasResponse;
+import com.mvhespanholo.taskzen.grpc.proto.DeletarTarefaRequest;
+import com.mvhespanholo.taskzen.grpc.proto.ErroValidacao;
+import com.mvhespanholo.taskzen.grpc.proto.ListarTarefasRequest;
+import com.mvhespanholo.taskzen.grpc.proto.TarefaMensagem;
+import com.mvhespanholo.taskzen.grpc.proto.TarefasGrpc;
+import com.mvhespanholo.taskzen.model.Tarefa;
+import com.mvhespanholo.taskzen.service.TarefaService;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.protobuf.StatusProto;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@Component
+public class TarefasGrpcService extends TarefasGrpc.TarefasImplBase {
+
+    // Tamanho dos lotes gravados durante a criação em lote
+    private static final int TAMANHO_LOTE = 100;
+
+    // Tarefas buscadas no banco por vez durante a listagem em stream
+    private static final int TAMANHO_PAGINA_LISTAGEM = 100;
+
+    @Autowired
+    private TarefaService service;
+
+    @Autowired
+    private Validator validator;
+
+    @Override
+    public void criarTarefa(TarefaMensagem request, StreamObserver<TarefaMensagem> responseObserver) {
+        try {
+            Tarefa tarefa = TarefaProtoMapper.paraTarefa(request);
+            Map<String, String> erros = validar(tarefa);
+            if (!erros.isEmpty()) {
+                throw Status.INVALID_ARGUMENT.withDescription("Erro de validação: " + erros).asRuntimeException();
+            }
+            responseObserver.onNext(TarefaProtoMapper.paraMensagem(service.criarTarefa(tarefa)));
+            responseObserver.onCompleted();
+        } catch (RuntimeException e) {
+            responseObserver.onError(paraStatus(e));
+        }
+    }
+
+    @Override
+    public void atualizarTarefa(AtualizarTarefaRequest request, StreamObserver<TarefaMensagem> responseObserver) {
+        try {
+            Tarefa tarefa = TarefaProtoMapper.paraTarefa(request.getTarefa());
+            if (tarefa.getTags().isEmpty()) {
+                tarefa.setTags(null);
+            }
+            responseObserver.onNext(TarefaProtoMapper.paraMensagem(service.atualizarTarefa(request.getId(), tarefa)));
+            responseObserver.onCompleted();
+        } catch (RuntimeException e) {
+            responseObserver.onError(paraStatus(e));
+        }
+    }
+
+    @Override
+    public void deletarTarefa(DeletarTarefaRequest request, StreamObserver<Empty> responseObserver) {
+        try {
+            service.deletarTarefa(request.getId());
+            responseObserver.onNext(Empty.getDefaultInstance());
+            responseObserver.onCompleted();
+        } catch (RuntimeException e) {
+            responseObserver.onError(paraStatus(e));
+        }
+    }
+
+    @Override
+    public void listarTarefas(ListarTarefasRequest request, StreamObserver<TarefaMensagem> responseObserver) {
+        List<Tarefa> primeiraPagina;
+        try {
+            primeiraPagina = consultar(request, 0);
+        } catch (RuntimeException e) {
+            responseObserver.onError(paraStatus(e));
+            return;
+        }
+
+        // Envia apenas enquanto o transporte estiver pronto e só busca a próxima página quando a
+        // atual foi enviada: um cliente lento mantém no máximo uma página em memória
+        ServerCallStreamObserver<TarefaMensagem> observer = (ServerCallStreamObserver<TarefaMensagem>) responseObserver;
+        AtomicBoolean concluido = new AtomicBoolean(false);
+        observer.setOnCancelHandler(() -> concluido.set(true));
+        observer.setOnReadyHandler(new Runnable() {
+            private List<Tarefa> pagina = primeiraPagina;
+            private Iterator<Tarefa> restantes = primeiraPagina.iterator();
+            private int inicio;
+
+            @Override
+            public void run() {
+                try {
+                    while (!concluido.get()) {
+                        if (!restantes.hasNext() && pagina.size() < TAMANHO_PAGINA_LISTAGEM) {
+                            // Página incompleta: não há mais tarefas, e o fim não depende de demanda
+                            if (concluido.compareAndSet(false, true)) {
+                                observer.onCompleted();
+                            }
+                        } else if (!observer.isReady()) {
+                            // O restante segue no próximo onReady
+                            return;
+                        } else if (restantes.hasNext()) {
+                            observer.onNext(TarefaProtoMapper.paraMensagem(restantes.next()));
+                        } else {
+                            inicio += pagina.size();
+                            pagina = consultar(request, inicio);
+                            restantes = pagina.iterator();
+                        }
+                    }
+                } catch (RuntimeException e) {
+                    if (concluido.compareAndSet(false, true)) {
+                        observer.onError(paraStatus(e));
+                    }
+                }
+            }
+        });
+    }
+
+    @Override
+    public StreamObserver<TarefaMensagem> criarTarefas(StreamObserver<CriarTarefasResponse> responseObserver) {
+        return new StreamObserver<>() {
+            private final List<Tarefa> pendentes = new ArrayList<>();
+            private final CriarTarefasResponse.Builder resposta = CriarTarefasResponse.newBuilder();
+            private int indice;
+            private int indicePrimeiroPendente;
+            private boolean falhou;
+
+            @Override
+            public void onNext(TarefaMensagem mensagem) {
+                if (falhou) {
+                    return;
+                }
+                Tarefa tarefa = TarefaProtoMapper.paraTarefa(mensagem);
+                Map<String, String> erros = validar(tarefa);
+                if (erros.isEmpty()) {
+                    if (pendentes.isEmpty()) {
+                        indicePrimeiroPendente = indice;
+                    }
+                    pendentes.add(tarefa);
+                } else {
+                    resposta.addErros(ErroValidacao.newBuilder().setIndice(indice).putAllCampos(erros));
+                }
+                indice++;
+                if (pendentes.size() >= TAMANHO_LOTE) {
+                    gravarPendentes();
+                }
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                // Lotes já gravados permanecem; apenas o lote em memória é descartado
+                pendentes.clear();
+            }
+
+            @Override
+            public void onCompleted() {
+                if (!falhou) {
+                    gravarPendentes();
+                }
+                if (!falhou) {
+                    responseObserver.onNext(resposta.build());
+                    responseObserver.onCompleted();
+                }
+            }
+
+            private void gravarPendentes() {
+                if (pendentes.isEmpty()) {
+                    return;
+                }
+                try {
+                    for (Tarefa criada : service.criarTarefas(pendentes)) {
+                        resposta.addIds(criada.getId());
+                    }
+                    resposta.setCriadas(resposta.getIdsCount());
+                    pendentes.clear();
+                } catch (RuntimeException e) {
+                    // Os lotes anteriores já foram confirmados: o cliente recebe seus ids nos detalhes do erro
+                    falhou = true;
+                    resposta.setPrimeiroIndiceNaoGravado(indicePrimeiroPendente);
+                    responseObserver.onError(comDetalhes(paraStatus(e), resposta.build()));
+                }
+            }
+        };
+    }
+
+    private List<Tarefa> consultar(ListarTarefasRequest request, int inicio) {
+        String status = request.hasStatus() ? request.getStatus() : null;
+        String nome = request.hasNome() ? request.getNome() : null;
+        String ordem = request.hasOrdem() ? request.getOrdem() : "desc";
+        if (request.hasFiltro() || request.hasOrdenarPor()) {
+            if (status != null || nome != null) {
+                throw new FiltroInvalidoException("Use o parâmetro filtro ou os parâmetros status e nome, não ambos");
+            }
+            return service.consultarTarefas(request.hasFiltro() ? request.getFiltro() : null,
+                    request.hasOrdenarPor() ? request.getOrdenarPor() : null, ordem, inicio, TAMANHO_PAGINA_LISTAGEM);
+        }
+        return service.filtrarTarefas(status, nome, ordem, inicio, TAMANHO_PAGINA_LISTAGEM);
+    }
+
+    // Mesmas regras de Bean Validation aplicadas pelo @Valid do controller REST
+    private Map<String, String> validar(Tarefa tarefa) {
+        Set<ConstraintViolation<Tarefa>> violacoes = validator.validate(tarefa);
+        Map<String, String> erros = new TreeMap<>();
+        for (ConstraintViolation<Tarefa> violacao : violacoes) {
+            erros.put(violacao.getPropertyPath().toString(), violacao.getMessage());
+        }
+        return erros;
+    }
+
+    private static StatusRuntimeException comDetalhes(StatusRuntimeException e, CriarTarefasResponse parcial) {
+        Status status = e.getStatus();
+        return StatusProto.toStatusRuntimeException(com.google.rpc.Status.newBuilder()
+                .setCode(status.getCode().value())
+                .setMessage(status.getDescription() != null ? status.getDescription() : "")
+                .addDetails(Any.pack(parcial))
+                .build());
+    }
+
+    // Equivalente ao TarefaControllerAdvice para os códigos de status do gRPC
+    private static StatusRuntimeException paraStatus(RuntimeException e) {
+        if (e instanceof StatusRuntimeException statusException) {
+            return statusException;
+        }
+        if (e instanceof TarefaNaoEncontradaException) {
+            return Status.NOT_FOUND.withDescription(e.getMessage()).asRuntimeException();
+        }
+        if (e instanceof FiltroInvalidoException) {
+            return Status.INVALID_ARGUMENT.withDescription(e.getMessage()).asRuntimeException();
+        }
+        if (e instanceof EscritaAssincronaIndisponivelException) {
+            return Status.UNAVAILABLE.withDescription(e.getMessage()).asRuntimeException();
+        }
+        return Status.INTERNAL.withDescription("Ocorreu um erro inesperado. Por favor, tente novamente mais tarde.").asRuntimeException();
+    }
+}
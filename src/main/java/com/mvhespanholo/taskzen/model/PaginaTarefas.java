@@ -0,0 +1,6 @@
+package com.mvhespanholo.taskzen.model;
+
+import java.util.List;
+
+public record PaginaTarefas(List<Tarefa> conteudo, int pagina, int tamanho, long total) {
+}
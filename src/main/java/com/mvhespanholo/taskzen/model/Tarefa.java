@@ -4,7 +4,11 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.BatchSize;
+
 import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
 
 @Entity
 public class Tarefa {
@@ -26,6 +30,12 @@ public class Tarefa {
     @Size(max = 255, message = "As observações devem ter no máximo 255 caracteres")
     private String observacoes;
 
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "tarefa_tags", joinColumns = @JoinColumn(name = "tarefa_id"))
+    @Column(name = "tag", length = 50)
+    @BatchSize(size = 100)
+    private Set<@NotBlank(message = "As tags não podem ser vazias") @Size(max = 50, message = "As tags devem ter no máximo 50 caracteres") String> tags;
+
     @Column(name = "data_criacao", updatable = false)
     private LocalDateTime dataCriacao;
 
@@ -85,6 +95,24 @@ public class Tarefa {
         this.observacoes = observacoes;
     }
 
+    public Set<String> getTags() {
+        return tags;
+    }
+
+    public void setTags(Set<String> tags) {
+        this.tags = tags;
+    }
+
+    // Altera a coleção gerenciada no lugar: o Hibernate grava só as tags que mudaram
+    public void substituirTags(Set<String> novasTags) {
+        if (tags == null) {
+            tags = new HashSet<>(novasTags);
+            return;
+        }
+        tags.retainAll(novasTags);
+        tags.addAll(novasTags);
+    }
+
     public LocalDateTime getDataCriacao() {
         return dataCriacao;
     }
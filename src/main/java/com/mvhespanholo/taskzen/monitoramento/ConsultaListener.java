@@ -0,0 +1,175 @@
+package com.mvhespanholo.taskzen.monitoramento;
+
+import net.ttddyy.dsproxy.ConnectionInfo;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.proxy.JdbcProxyFactory;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import net.ttddyy.dsproxy.proxy.ProxyConfig;
+import net.ttddyy.dsproxy.proxy.jdk.JdkJdbcProxyFactory;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Listener do datasource-proxy que alimenta o {@link PerfilConsultas}. A amostragem é decidida
+ * antes de cada comando; só os ResultSets de comandos amostrados são envolvidos para contar as
+ * chamadas a {@code ResultSet.next()}, e as linhas são registradas no fechamento.
+ */
+public class ConsultaListener implements QueryExecutionListener {
+
+    private final PerfilConsultas perfil;
+    private final DataSource dataSourceOriginal;
+
+    // O comando em execução na thread; ausente quando não foi amostrado
+    private final ThreadLocal<Execucao> execucaoAtual = new ThreadLocal<>();
+    private final JdbcProxyFactory proxyFactory = new ContadorLinhasProxyFactory();
+
+    public ConsultaListener(PerfilConsultas perfil, DataSource dataSourceOriginal) {
+        this.perfil = perfil;
+        this.dataSourceOriginal = dataSourceOriginal;
+    }
+
+    /**
+     * Fábrica de proxies que deve ser usada junto com este listener: devolve o ResultSet
+     * original quando o comando não foi amostrado.
+     */
+    public JdbcProxyFactory getProxyFactory() {
+        return proxyFactory;
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        if (!queryInfoList.isEmpty() && perfil.amostrar()) {
+            execucaoAtual.set(new Execucao());
+        } else {
+            execucaoAtual.remove();
+        }
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        Execucao execucao = execucaoAtual.get();
+        if (execucao == null) {
+            return;
+        }
+        execucaoAtual.remove();
+        // Em lotes o tempo é dividido igualmente entre os comandos
+        long tempoMs = execInfo.getElapsedTime() / queryInfoList.size();
+        Object resultado = execInfo.getResult();
+
+        for (QueryInfo queryInfo : queryInfoList) {
+            String sql = queryInfo.getQuery();
+            Supplier<String> capturaPlano = null;
+            if (tempoMs >= perfil.getLimiteLentaMs() && PerfilConsultas.ehLeitura(sql)) {
+                capturaPlano = capturarPlano(sql, copiarParametros(queryInfo));
+            }
+            EstatisticaConsulta estatistica = perfil.registrar(sql, tempoMs, capturaPlano);
+            if (estatistica == null) {
+                continue;
+            }
+            if (resultado instanceof ResultSet) {
+                execucao.estatistica = estatistica;
+            } else if (resultado instanceof Integer atualizadas) {
+                estatistica.adicionarLinhas(Math.max(atualizadas, 0));
+            } else if (resultado instanceof int[] lote) {
+                for (int atualizadas : lote) {
+                    estatistica.adicionarLinhas(Math.max(atualizadas, 0));
+                }
+                break;
+            }
+        }
+    }
+
+    // Os parâmetros são copiados porque o PreparedStatement pode ser reutilizado antes da captura
+    private static List<Object[]> copiarParametros(QueryInfo queryInfo) {
+        List<Object[]> parametros = new ArrayList<>();
+        if (!queryInfo.getParametersList().isEmpty()) {
+            for (ParameterSetOperation operacao : queryInfo.getParametersList().get(0)) {
+                Object[] argumentos = operacao.getArgs();
+                parametros.add(new Object[]{operacao.getMethod().getName(), argumentos[0], argumentos.length > 1 ? argumentos[1] : null});
+            }
+        }
+        return parametros;
+    }
+
+    // EXPLAIN ANALYZE executa a consulta, por isso só é usado em leituras e sempre com rollback
+    private Supplier<String> capturarPlano(String sql, List<Object[]> parametros) {
+        return () -> {
+            try (Connection conexao = dataSourceOriginal.getConnection()) {
+                conexao.setAutoCommit(false);
+                conexao.setReadOnly(true);
+                try (PreparedStatement statement = conexao.prepareStatement("EXPLAIN (ANALYZE, BUFFERS) " + sql)) {
+                    for (Object[] parametro : parametros) {
+                        if (parametro[0].equals("setNull")) {
+                            statement.setNull((Integer) parametro[1], (Integer) parametro[2]);
+                        } else {
+                            statement.setObject((Integer) parametro[1], parametro[2]);
+                        }
+                    }
+                    StringBuilder plano = new StringBuilder();
+                    try (ResultSet resultSet = statement.executeQuery()) {
+                        while (resultSet.next()) {
+                            plano.append(resultSet.getString(1)).append('\n');
+                        }
+                    }
+                    return plano.toString();
+                } finally {
+                    conexao.rollback();
+                }
+            } catch (SQLException | RuntimeException e) {
+                return "Falha ao capturar o plano: " + e.getMessage();
+            }
+        };
+    }
+
+    // Usada apenas pela thread que percorre o ResultSet, por isso dispensa sincronização
+    private static class Execucao {
+        private EstatisticaConsulta estatistica;
+        private long linhas;
+        private boolean fechada;
+
+        void fechar() {
+            if (!fechada && estatistica != null) {
+                estatistica.adicionarLinhas(linhas);
+            }
+            fechada = true;
+        }
+    }
+
+    private class ContadorLinhasProxyFactory extends JdkJdbcProxyFactory {
+
+        @Override
+        public ResultSet createResultSet(ResultSet resultSet, ConnectionInfo connectionInfo, ProxyConfig proxyConfig) {
+            Execucao execucao = execucaoAtual.get();
+            if (execucao == null) {
+                return resultSet;
+            }
+            return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[]{ResultSet.class},
+                    (proxy, metodo, argumentos) -> {
+                        Object retorno;
+                        try {
+                            retorno = metodo.invoke(resultSet, argumentos);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                        String nome = metodo.getName();
+                        if (nome.equals("next") && Boolean.TRUE.equals(retorno)) {
+                            execucao.linhas++;
+                        } else if (nome.equals("close")) {
+                            execucao.fechar();
+                        }
+                        return retorno;
+                    });
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.mvhespanholo.taskzen.monitoramento;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+@Component
+@Endpoint(id = "consultas")
+public class ConsultasEndpoint {
+
+    private static final int TOP_PADRAO = 10;
+
+    @Autowired
+    private PerfilConsultas perfil;
+
+    @ReadOperation
+    public RelatorioConsultas relatorio(@Nullable Integer top) {
+        return perfil.relatorio(top != null && top > 0 ? top : TOP_PADRAO);
+    }
+
+    @DeleteOperation
+    public void limpar() {
+        perfil.limpar();
+    }
+}
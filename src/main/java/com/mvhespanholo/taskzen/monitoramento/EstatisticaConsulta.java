@@ -0,0 +1,78 @@
+package com.mvhespanholo.taskzen.monitoramento;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Estatísticas acumuladas de um mesmo texto SQL.
+ */
+public class EstatisticaConsulta {
+
+    private final String sql;
+    private final LongAdder execucoes = new LongAdder();
+    private final LongAdder tempoTotalMs = new LongAdder();
+    private final AtomicLong tempoMaximoMs = new AtomicLong();
+    private final LongAdder linhas = new LongAdder();
+    private final LongAdder lentas = new LongAdder();
+    private final AtomicBoolean planoSolicitado = new AtomicBoolean(false);
+    private volatile String plano;
+
+    public EstatisticaConsulta(String sql) {
+        this.sql = sql;
+    }
+
+    void registrar(long tempoMs, boolean lenta) {
+        execucoes.increment();
+        tempoTotalMs.add(tempoMs);
+        tempoMaximoMs.accumulateAndGet(tempoMs, Math::max);
+        if (lenta) {
+            lentas.increment();
+        }
+    }
+
+    void adicionarLinhas(long quantidade) {
+        linhas.add(quantidade);
+    }
+
+    // Garante que apenas uma captura de plano seja disparada por consulta
+    boolean solicitarPlano() {
+        return planoSolicitado.compareAndSet(false, true);
+    }
+
+    void cancelarSolicitacaoPlano() {
+        planoSolicitado.set(false);
+    }
+
+    void setPlano(String plano) {
+        this.plano = plano;
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    public long getExecucoes() {
+        return execucoes.sum();
+    }
+
+    public long getTempoTotalMs() {
+        return tempoTotalMs.sum();
+    }
+
+    public long getTempoMaximoMs() {
+        return tempoMaximoMs.get();
+    }
+
+    public long getLinhas() {
+        return linhas.sum();
+    }
+
+    public long getLentas() {
+        return lentas.sum();
+    }
+
+    public String getPlano() {
+        return plano;
+    }
+}
@@ -0,0 +1,30 @@
+package com.mvhespanholo.taskzen.monitoramento;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+// Delimita a requisição para a amostragem e para a detecção de consultas repetidas (N+1)
+@Component
+public class FiltroPerfilConsultas extends OncePerRequestFilter {
+
+    @Autowired
+    private PerfilConsultas perfil;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        perfil.iniciarRequisicao();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            perfil.finalizarRequisicao(request.getMethod() + " " + request.getRequestURI());
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.mvhespanholo.taskzen.monitoramento;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Perfil das consultas executadas no banco: latência e linhas por SQL, captura assíncrona
+ * do plano das consultas lentas e detecção de SQL repetido em uma mesma requisição (N+1).
+ * A amostragem é decidida por requisição, ou por consulta fora de requisições.
+ */
+@Component
+public class PerfilConsultas {
+
+    private static final Logger log = LoggerFactory.getLogger(PerfilConsultas.class);
+
+    private static final int TAMANHO_MAXIMO_SQL = 500;
+
+    private final double taxaAmostragem;
+    private final long limiteLentaMs;
+    private final int limiteRepeticoes;
+    private final int maximoConsultas;
+
+    private final Map<String, EstatisticaConsulta> estatisticas = new ConcurrentHashMap<>();
+    private final Map<String, SuspeitaAcumulada> suspeitas = new ConcurrentHashMap<>();
+    private final LongAdder consultasIgnoradas = new LongAdder();
+    private final ThreadLocal<ContextoRequisicao> contexto = new ThreadLocal<>();
+    private final ThreadPoolExecutor capturaPlanos;
+
+    public PerfilConsultas(@Value("${taskzen.perfil.taxa-amostragem:1.0}") double taxaAmostragem,
+                           @Value("${taskzen.perfil.limite-lenta-ms:200}") long limiteLentaMs,
+                           @Value("${taskzen.perfil.limite-repeticoes:10}") int limiteRepeticoes,
+                           @Value("${taskzen.perfil.maximo-consultas:1000}") int maximoConsultas) {
+        this.taxaAmostragem = taxaAmostragem;
+        this.limiteLentaMs = limiteLentaMs;
+        this.limiteRepeticoes = limiteRepeticoes;
+        this.maximoConsultas = maximoConsultas;
+
+        // Fila limitada: capturas excedentes são descartadas e podem ser refeitas depois
+        this.capturaPlanos = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(16), r -> {
+                    Thread thread = new Thread(r, "perfil-consultas-explain");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    public boolean amostrar() {
+        ContextoRequisicao atual = contexto.get();
+        return atual != null ? atual.amostrado : sortear();
+    }
+
+    public long getLimiteLentaMs() {
+        return limiteLentaMs;
+    }
+
+    /**
+     * Registra uma execução já amostrada. Para consultas lentas de leitura, o plano é
+     * capturado uma única vez, de forma assíncrona, pelo fornecedor informado.
+     */
+    public EstatisticaConsulta registrar(String sql, long tempoMs, Supplier<String> capturaPlano) {
+        EstatisticaConsulta estatistica = estatisticas.get(sql);
+        if (estatistica == null) {
+            if (estatisticas.size() >= maximoConsultas) {
+                consultasIgnoradas.increment();
+                return null;
+            }
+            estatistica = estatisticas.computeIfAbsent(sql, EstatisticaConsulta::new);
+        }
+        boolean lenta = tempoMs >= limiteLentaMs;
+        estatistica.registrar(tempoMs, lenta);
+
+        if (lenta && capturaPlano != null && estatistica.solicitarPlano()) {
+            EstatisticaConsulta alvo = estatistica;
+            try {
+                capturaPlanos.execute(() -> alvo.setPlano(capturaPlano.get()));
+            } catch (RejectedExecutionException e) {
+                alvo.cancelarSolicitacaoPlano();
+            }
+        }
+
+        ContextoRequisicao atual = contexto.get();
+        if (atual != null && ehLeitura(sql)) {
+            atual.repeticoes.merge(sql, 1, Integer::sum);
+        }
+        return estatistica;
+    }
+
+    public void iniciarRequisicao() {
+        contexto.set(new ContextoRequisicao(sortear()));
+    }
+
+    public void finalizarRequisicao(String requisicao) {
+        ContextoRequisicao atual = contexto.get();
+        contexto.remove();
+        if (atual == null) {
+            return;
+        }
+        atual.repeticoes.forEach((sql, repeticoes) -> {
+            if (repeticoes >= limiteRepeticoes) {
+                String chave = requisicao + "\n" + sql;
+                if (suspeitas.containsKey(chave) || suspeitas.size() < maximoConsultas) {
+                    suspeitas.computeIfAbsent(chave, c -> new SuspeitaAcumulada(requisicao, sql)).registrar(repeticoes);
+                    log.debug("Possível N+1 em {}: consulta repetida {} vezes", requisicao, repeticoes);
+                }
+            }
+        });
+    }
+
+    public RelatorioConsultas relatorio(int top) {
+        List<RelatorioConsultas.Consulta> consultas = estatisticas.values().stream()
+                .sorted(Comparator.comparingLong(EstatisticaConsulta::getTempoMaximoMs).reversed())
+                .limit(top)
+                .map(e -> new RelatorioConsultas.Consulta(
+                        resumir(e.getSql()),
+                        e.getExecucoes(),
+                        e.getExecucoes() == 0 ? 0 : (double) e.getTempoTotalMs() / e.getExecucoes(),
+                        e.getTempoMaximoMs(),
+                        e.getLinhas(),
+                        e.getLentas(),
+                        e.getPlano()))
+                .toList();
+        List<RelatorioConsultas.SuspeitaNMaisUm> nMaisUm = suspeitas.values().stream()
+                .map(SuspeitaAcumulada::paraRelatorio)
+                .sorted(Comparator.comparingInt(RelatorioConsultas.SuspeitaNMaisUm::repeticoes).reversed())
+                .limit(top)
+                .toList();
+        return new RelatorioConsultas(taxaAmostragem, limiteLentaMs, consultasIgnoradas.sum(), consultas, nMaisUm);
+    }
+
+    public void limpar() {
+        estatisticas.clear();
+        suspeitas.clear();
+        consultasIgnoradas.reset();
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        capturaPlanos.shutdownNow();
+    }
+
+    public static boolean ehLeitura(String sql) {
+        String inicio = sql.stripLeading().toLowerCase(Locale.ROOT);
+        return inicio.startsWith("select") || inicio.startsWith("with");
+    }
+
+    private boolean sortear() {
+        return taxaAmostragem >= 1.0 || ThreadLocalRandom.current().nextDouble() < taxaAmostragem;
+    }
+
+    private static String resumir(String sql) {
+        return sql.length() <= TAMANHO_MAXIMO_SQL ? sql : sql.substring(0, TAMANHO_MAXIMO_SQL) + "...";
+    }
+
+    private static class ContextoRequisicao {
+        private final boolean amostrado;
+        private final Map<String, Integer> repeticoes = new HashMap<>();
+
+        ContextoRequisicao(boolean amostrado) {
+            this.amostrado = amostrado;
+        }
+    }
+
+    private static class SuspeitaAcumulada {
+        private final String requisicao;
+        private final String sql;
+        private int maximoRepeticoes;
+        private long ocorrencias;
+        private LocalDateTime ultimaOcorrencia;
+
+        SuspeitaAcumulada(String requisicao, String sql) {
+            this.requisicao = requisicao;
+            this.sql = sql;
+        }
+
+        synchronized void registrar(int repeticoes) {
+            maximoRepeticoes = Math.max(maximoRepeticoes, repeticoes);
+            ocorrencias++;
+            ultimaOcorrencia = LocalDateTime.now();
+        }
+
+        synchronized RelatorioConsultas.SuspeitaNMaisUm paraRelatorio() {
+            return new RelatorioConsultas.SuspeitaNMaisUm(requisicao, resumir(sql), maximoRepeticoes, ocorrencias, ultimaOcorrencia);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.mvhespanholo.taskzen.monitoramento;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public record RelatorioConsultas(
+        double taxaAmostragem,
+        long limiteLentaMs,
+        long consultasIgnoradas,
+        List<Consulta> consultasMaisLentas,
+        List<SuspeitaNMaisUm> suspeitasNMaisUm) {
+
+    public record Consulta(
+            String sql,
+            long execucoes,
+            double tempoMedioMs,
+            long tempoMaximoMs,
+            long linhas,
+            long lentas,
+            String plano) {
+    }
+
+    public record SuspeitaNMaisUm(
+            String requisicao,
+            String sql,
+            int repeticoes,
+            long ocorrencias,
+            LocalDateTime ultimaOcorrencia) {
+    }
+}
@@ -3,12 +3,20 @@ package com.mvhespanholo.taskzen.repository;
 import com.mvhespanholo.taskzen.model.Tarefa;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 
 @Repository
-public interface TarefaRepository extends JpaRepository<Tarefa, Long>, JpaSpecificationExecutor<Tarefa> {
+public interface TarefaRepository extends JpaRepository<Tarefa, Long>, JpaSpecificationExecutor<Tarefa>, TarefaRepositoryCustom {
     List<Tarefa> findByStatus(String status);
     List<Tarefa> findByNomeContainingIgnoreCase(String nome);
+
+    // Projeções usadas na reconstrução do índice em memória
+    @Query("select t.id, t.status from Tarefa t")
+    List<Object[]> findIdsEStatus();
+
+    @Query("select t.id, tag from Tarefa t join t.tags tag")
+    List<Object[]> findIdsETags();
 }
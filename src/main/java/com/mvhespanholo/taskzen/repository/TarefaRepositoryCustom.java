@@ -0,0 +1,17 @@
+package com.mvhespanholo.taskzen.repository;
+
+import com.mvhespanholo.taskzen.filtro.ConsultaFiltro;
+import com.mvhespanholo.taskzen.model.Tarefa;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+public interface TarefaRepositoryCustom {
+    List<Tarefa> executarConsulta(ConsultaFiltro consulta);
+
+    // Variantes paginadas sem consulta de contagem, usadas para percorrer resultados grandes aos poucos
+    List<Tarefa> executarConsulta(ConsultaFiltro consulta, int inicio, int limite);
+
+    List<Tarefa> buscarPagina(Specification<Tarefa> especificacao, Sort sort, int inicio, int limite);
+}
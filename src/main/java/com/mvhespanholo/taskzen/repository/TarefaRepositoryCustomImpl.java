@@ -0,0 +1,62 @@
+package com.mvhespanholo.taskzen.repository;
+
+import com.mvhespanholo.taskzen.filtro.ConsultaFiltro;
+import com.mvhespanholo.taskzen.model.Tarefa;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import java.util.List;
+
+public class TarefaRepositoryCustomImpl implements TarefaRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Tarefa> executarConsulta(ConsultaFiltro consulta) {
+        return criarConsulta(consulta).getResultList();
+    }
+
+    @Override
+    public List<Tarefa> executarConsulta(ConsultaFiltro consulta, int inicio, int limite) {
+        return criarConsulta(consulta)
+                .setFirstResult(inicio)
+                .setMaxResults(limite)
+                .getResultList();
+    }
+
+    @Override
+    public List<Tarefa> buscarPagina(Specification<Tarefa> especificacao, Sort sort, int inicio, int limite) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tarefa> criteria = cb.createQuery(Tarefa.class);
+        Root<Tarefa> root = criteria.from(Tarefa.class);
+        if (especificacao != null) {
+            Predicate predicado = especificacao.toPredicate(root, criteria, cb);
+            if (predicado != null) {
+                criteria.where(predicado);
+            }
+        }
+        criteria.select(root).orderBy(QueryUtils.toOrders(sort, root, cb));
+        return entityManager.createQuery(criteria)
+                .setFirstResult(inicio)
+                .setMaxResults(limite)
+                .getResultList();
+    }
+
+    private TypedQuery<Tarefa> criarConsulta(ConsultaFiltro consulta) {
+        TypedQuery<Tarefa> query = entityManager.createQuery(consulta.plano().jpql(), Tarefa.class);
+        List<Object> parametros = consulta.parametros();
+        for (int i = 0; i < parametros.size(); i++) {
+            query.setParameter("p" + i, parametros.get(i));
+        }
+        return query;
+    }
+}
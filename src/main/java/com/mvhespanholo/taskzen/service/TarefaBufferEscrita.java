@@ -0,0 +1,391 @@
+package com.mvhespanholo.taskzen.service;
+
+import com.mvhespanholo.taskzen.exception.EscritaAssincronaIndisponivelException;
+import com.mvhespanholo.taskzen.exception.TarefaNaoEncontradaException;
+import com.mvhespanholo.taskzen.model.Tarefa;
+import com.mvhespanholo.taskzen.repository.TarefaRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Buffer de escrita assíncrona (write-behind) para atualizações de tarefas.
+ * Atualizações do mesmo ID são agrupadas (a última escrita vence, campo a campo)
+ * e uma única thread grava os lotes em uma só transação, por tamanho ou por tempo.
+ */
+@Component
+public class TarefaBufferEscrita {
+
+    private static final Logger log = LoggerFactory.getLogger(TarefaBufferEscrita.class);
+
+    private static final List<String> CAMPOS_ATUALIZAVEIS = List.of("nome", "descricao", "status", "observacoes", "tags");
+
+    private final TarefaRepository repository;
+    private final TarefaIndiceBitmap indice;
+    private final TravasPorTarefa travas;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final int tamanhoLote;
+    private final int capacidade;
+    private final int maximoTentativas;
+    private final long timeoutMs;
+
+    // Protegido por "this"; LinkedHashMap mantém a ordem de chegada dos IDs
+    private final Map<Long, AtualizacaoPendente> pendentes = new LinkedHashMap<>();
+    // IDs do lote que o gravador está gravando; também protegido por "this"
+    private final Set<Long> emGravacao = new HashSet<>();
+    // Entradas que falharam na descarga atual e voltam ao buffer no fim dela; também protegido por "this"
+    private final Map<Long, AtualizacaoPendente> aguardandoNovaTentativa = new LinkedHashMap<>();
+    private final ScheduledExecutorService gravador;
+    private final AtomicBoolean descargaAgendada = new AtomicBoolean(false);
+    private volatile boolean encerrado;
+
+    private final Counter recebidas;
+    private final Counter agrupadas;
+    private final Counter lotesGravados;
+    private final Counter falhas;
+    private final Counter descartadas;
+    private final Timer tempoDescarga;
+
+    public TarefaBufferEscrita(TarefaRepository repository,
+                               TarefaIndiceBitmap indice,
+                               TravasPorTarefa travas,
+                               Validator validator,
+                               PlatformTransactionManager transactionManager,
+                               MeterRegistry meterRegistry,
+                               @Value("${taskzen.escrita-assincrona.tamanho-lote:100}") int tamanhoLote,
+                               @Value("${taskzen.escrita-assincrona.capacidade:10000}") int capacidade,
+                               @Value("${taskzen.escrita-assincrona.maximo-tentativas:3}") int maximoTentativas,
+                               @Value("${taskzen.escrita-assincrona.intervalo-ms:200}") long intervaloMs,
+                               @Value("${taskzen.escrita-assincrona.timeout-ms:5000}") long timeoutMs) {
+        this.repository = repository;
+        this.indice = indice;
+        this.travas = travas;
+        this.validator = validator;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.tamanhoLote = tamanhoLote;
+        this.capacidade = capacidade;
+        this.maximoTentativas = maximoTentativas;
+        this.timeoutMs = timeoutMs;
+
+        this.gravador = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "tarefa-buffer-escrita");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.gravador.scheduleWithFixedDelay(this::descarregarTudo, intervaloMs, intervaloMs, TimeUnit.MILLISECONDS);
+
+        Gauge.builder("taskzen.escrita.pendentes", this, TarefaBufferEscrita::getPendentes)
+                .description("Tarefas com atualização aguardando gravação")
+                .register(meterRegistry);
+        this.recebidas = meterRegistry.counter("taskzen.escrita.recebidas");
+        this.agrupadas = meterRegistry.counter("taskzen.escrita.agrupadas");
+        this.lotesGravados = meterRegistry.counter("taskzen.escrita.lotes");
+        this.falhas = meterRegistry.counter("taskzen.escrita.falhas");
+        this.descartadas = meterRegistry.counter("taskzen.escrita.descartadas");
+        this.tempoDescarga = meterRegistry.timer("taskzen.escrita.descarga");
+    }
+
+    public void enfileirar(Long id, Tarefa tarefa) {
+        // Valida antes de aceitar: uma atualização inválida falharia só na gravação do lote
+        validar(tarefa);
+        if (!contemPendente(id) && !repository.existsById(id)) {
+            throw new TarefaNaoEncontradaException("Tarefa com ID " + id + " não encontrada");
+        }
+
+        int tamanho;
+        synchronized (this) {
+            if (encerrado) {
+                throw new EscritaAssincronaIndisponivelException("O buffer de escrita está sendo encerrado");
+            }
+            AtualizacaoPendente pendente = pendentes.get(id);
+            if (pendente == null) {
+                if (pendentes.size() >= capacidade) {
+                    throw new EscritaAssincronaIndisponivelException("O buffer de escrita atingiu a capacidade máxima de " + capacidade + " tarefas");
+                }
+                pendente = new AtualizacaoPendente();
+                pendentes.put(id, pendente);
+            } else {
+                agrupadas.increment();
+            }
+            pendente.mesclar(tarefa);
+            tamanho = pendentes.size();
+        }
+        recebidas.increment();
+
+        // Gatilho por tamanho: agenda uma única descarga até que ela comece a rodar
+        if (tamanho >= tamanhoLote && descargaAgendada.compareAndSet(false, true)) {
+            try {
+                gravador.execute(this::descarregarTudo);
+            } catch (RejectedExecutionException e) {
+                // Encerramento em andamento: a descarga final já inclui esta atualização
+            }
+        }
+    }
+
+    /**
+     * Chamado antes de uma escrita síncrona: espera o gravador terminar um lote que já contenha
+     * o ID e descarta a atualização pendente, inclusive uma que falhou e aguarda nova tentativa,
+     * para que a escrita síncrona seja sempre a última a ser gravada.
+     *
+     * @return as tags da atualização descartada, ou null se ela não alterava as tags; a escrita
+     * síncrona deve aplicá-las quando não informar as próprias tags
+     */
+    public synchronized Set<String> descartar(Long id) {
+        long limite = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        while (emGravacao.contains(id)) {
+            long restante = limite - System.nanoTime();
+            if (restante <= 0) {
+                throw new EscritaAssincronaIndisponivelException("Tempo esgotado aguardando a gravação assíncrona da tarefa " + id);
+            }
+            try {
+                TimeUnit.NANOSECONDS.timedWait(this, restante);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new EscritaAssincronaIndisponivelException("Interrompido aguardando a gravação assíncrona da tarefa " + id);
+            }
+        }
+        AtualizacaoPendente recente = pendentes.remove(id);
+        AtualizacaoPendente falhou = aguardandoNovaTentativa.remove(id);
+        if (recente != null && recente.tags != null) {
+            return recente.tags;
+        }
+        return falhou != null ? falhou.tags : null;
+    }
+
+    private synchronized boolean contemPendente(Long id) {
+        return pendentes.containsKey(id);
+    }
+
+    public synchronized int getPendentes() {
+        return pendentes.size();
+    }
+
+    /**
+     * Barreira de descarga: retorna true quando tudo o que foi enfileirado antes
+     * da chamada foi gravado, ou false se alguma atualização falhou ou em caso de timeout.
+     */
+    public boolean aguardarDescarga() {
+        try {
+            Future<Boolean> descarga = gravador.submit(this::descarregarTudo);
+            return descarga.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (Exception e) {
+            log.warn("Descarga do buffer de escrita não concluída: {}", e.toString());
+            return false;
+        }
+    }
+
+    @PreDestroy
+    public void encerrar() {
+        synchronized (this) {
+            if (encerrado) {
+                return;
+            }
+            encerrado = true;
+        }
+        gravador.execute(this::descarregarTudo);
+        gravador.shutdown();
+        try {
+            if (!gravador.awaitTermination(timeoutMs, TimeUnit.MILLISECONDS)) {
+                log.error("Buffer de escrita encerrado com {} tarefas não gravadas", getPendentes());
+                gravador.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            gravador.shutdownNow();
+        }
+    }
+
+    // Executado apenas na thread do gravador: drena o buffer em lotes de no máximo "tamanhoLote"
+    // Entradas que falharam só voltam ao buffer no fim, para não serem repetidas na mesma descarga
+    private boolean descarregarTudo() {
+        descargaAgendada.set(false);
+        boolean sucesso = true;
+        Map<Long, AtualizacaoPendente> lote;
+        while (!(lote = retirarLote()).isEmpty()) {
+            try {
+                sucesso &= gravarLote(lote);
+            } finally {
+                liberar(lote.keySet());
+            }
+        }
+        reenfileirar();
+        return sucesso;
+    }
+
+    private synchronized Map<Long, AtualizacaoPendente> retirarLote() {
+        Map<Long, AtualizacaoPendente> lote = new LinkedHashMap<>();
+        Iterator<Map.Entry<Long, AtualizacaoPendente>> it = pendentes.entrySet().iterator();
+        while (it.hasNext() && lote.size() < tamanhoLote) {
+            Map.Entry<Long, AtualizacaoPendente> entrada = it.next();
+            lote.put(entrada.getKey(), entrada.getValue());
+            emGravacao.add(entrada.getKey());
+            it.remove();
+        }
+        return lote;
+    }
+
+    // Chamado depois de atualizar o índice, para que escritas síncronas vejam o lote completo
+    private synchronized void liberar(Set<Long> ids) {
+        emGravacao.removeAll(ids);
+        notifyAll();
+    }
+
+    private boolean gravarLote(Map<Long, AtualizacaoPendente> lote) {
+        Timer.Sample amostra = Timer.start();
+        try {
+            // Sob as travas dos IDs até atualizar o índice, como nas escritas síncronas
+            travas.executar(lote.keySet(), () -> {
+                List<Tarefa> gravadas = transactionTemplate.execute(status -> {
+                    List<Tarefa> tarefas = repository.findAllById(lote.keySet());
+                    for (Tarefa tarefa : tarefas) {
+                        lote.get(tarefa.getId()).aplicar(tarefa);
+                    }
+                    repository.saveAll(tarefas);
+                    if (tarefas.size() < lote.size()) {
+                        log.warn("{} atualizações descartadas: tarefas removidas antes da gravação", lote.size() - tarefas.size());
+                    }
+                    return tarefas;
+                });
+                gravadas.forEach(indice::registrar);
+                return gravadas;
+            });
+            lotesGravados.increment();
+            return true;
+        } catch (RuntimeException e) {
+            falhas.increment();
+            log.warn("Falha ao gravar lote de {} tarefas; gravando uma a uma", lote.size(), e);
+            // Isola a entrada problemática para que as demais do lote sejam gravadas
+            boolean sucesso = true;
+            for (Map.Entry<Long, AtualizacaoPendente> entrada : lote.entrySet()) {
+                sucesso &= gravarIndividual(entrada.getKey(), entrada.getValue());
+            }
+            return sucesso;
+        } finally {
+            amostra.stop(tempoDescarga);
+        }
+    }
+
+    private boolean gravarIndividual(Long id, AtualizacaoPendente pendente) {
+        try {
+            travas.executar(id, () -> {
+                Tarefa gravada = transactionTemplate.execute(status -> repository.findById(id)
+                        .map(tarefa -> {
+                            pendente.aplicar(tarefa);
+                            return repository.save(tarefa);
+                        })
+                        .orElse(null));
+                if (gravada == null) {
+                    log.warn("Atualização descartada: tarefa com ID {} removida antes da gravação", id);
+                } else {
+                    indice.registrar(gravada);
+                }
+                return gravada;
+            });
+            return true;
+        } catch (RuntimeException e) {
+            if (++pendente.tentativas >= maximoTentativas) {
+                descartadas.increment();
+                log.error("Atualização da tarefa com ID {} descartada após {} tentativas", id, pendente.tentativas, e);
+            } else {
+                // Registrada antes de liberar o ID, para que uma escrita síncrona possa descartá-la
+                aguardarNovaTentativa(id, pendente);
+            }
+            return false;
+        }
+    }
+
+    private synchronized void aguardarNovaTentativa(Long id, AtualizacaoPendente pendente) {
+        aguardandoNovaTentativa.put(id, pendente);
+    }
+
+    // Devolve as falhas ao buffer sem sobrescrever atualizações mais recentes
+    private synchronized void reenfileirar() {
+        aguardandoNovaTentativa.forEach((id, anterior) -> {
+            AtualizacaoPendente recente = pendentes.get(id);
+            if (recente == null) {
+                pendentes.put(id, anterior);
+            } else {
+                recente.completarCom(anterior);
+                recente.tentativas = Math.max(recente.tentativas, anterior.tentativas);
+            }
+        });
+        aguardandoNovaTentativa.clear();
+    }
+
+    // Valida apenas os campos informados, já que os ausentes mantêm o valor atual
+    private void validar(Tarefa tarefa) {
+        BeanWrapperImpl campos = new BeanWrapperImpl(tarefa);
+        Set<ConstraintViolation<Tarefa>> violacoes = new HashSet<>();
+        for (String campo : CAMPOS_ATUALIZAVEIS) {
+            if (campos.getPropertyValue(campo) != null) {
+                violacoes.addAll(validator.validateProperty(tarefa, campo));
+            }
+        }
+        if (!violacoes.isEmpty()) {
+            throw new ConstraintViolationException(violacoes);
+        }
+    }
+
+    // Campos nulos não sobrescrevem valores já enfileirados
+    private static class AtualizacaoPendente {
+        private String nome;
+        private String descricao;
+        private String status;
+        private String observacoes;
+        private Set<String> tags;
+        private int tentativas;
+
+        void mesclar(Tarefa tarefa) {
+            if (tarefa.getNome() != null) nome = tarefa.getNome();
+            if (tarefa.getDescricao() != null) descricao = tarefa.getDescricao();
+            if (tarefa.getStatus() != null) status = tarefa.getStatus();
+            if (tarefa.getObservacoes() != null) observacoes = tarefa.getObservacoes();
+            if (tarefa.getTags() != null) tags = new HashSet<>(tarefa.getTags());
+        }
+
+        void completarCom(AtualizacaoPendente anterior) {
+            if (nome == null) nome = anterior.nome;
+            if (descricao == null) descricao = anterior.descricao;
+            if (status == null) status = anterior.status;
+            if (observacoes == null) observacoes = anterior.observacoes;
+            if (tags == null) tags = anterior.tags;
+        }
+
+        void aplicar(Tarefa tarefa) {
+            if (nome != null) tarefa.setNome(nome);
+            if (descricao != null) tarefa.setDescricao(descricao);
+            if (status != null) tarefa.setStatus(status);
+            if (observacoes != null) tarefa.setObservacoes(observacoes);
+            if (tags != null) tarefa.substituirTags(tags);
+        }
+    }
+}
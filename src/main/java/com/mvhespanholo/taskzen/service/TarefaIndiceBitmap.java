@@ -0,0 +1,159 @@
+package com.mvhespanholo.taskzen.service;
+
+import com.mvhespanholo.taskzen.exception.IndiceIndisponivelException;
+import com.mvhespanholo.taskzen.model.Tarefa;
+import com.mvhespanholo.taskzen.repository.TarefaRepository;
+import org.roaringbitmap.longlong.Roaring64NavigableMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índice em memória de tarefas por status e por tag, baseado em Roaring bitmaps de 64 bits,
+ * que aceitam qualquer ID gerado pelo banco.
+ * Responde filtros de conjunto (status IN, com tag, sem tag) sem consultar o banco;
+ * apenas os IDs da página final são buscados pelo repositório. Até a primeira reconstrução,
+ * que ocorre depois que os servidores já aceitam requisições, as consultas são rejeitadas.
+ */
+@Component
+public class TarefaIndiceBitmap {
+
+    private static final Logger log = LoggerFactory.getLogger(TarefaIndiceBitmap.class);
+
+    private static final Roaring64NavigableMap VAZIO = new Roaring64NavigableMap();
+
+    @Autowired
+    private TarefaRepository repository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Roaring64NavigableMap todas = new Roaring64NavigableMap();
+    private final Map<String, Roaring64NavigableMap> porStatus = new HashMap<>();
+    private final Map<String, Roaring64NavigableMap> porTag = new HashMap<>();
+    private volatile boolean pronto;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconstruir() {
+        // O lock de escrita é mantido durante a leitura do banco para que
+        // atualizações concorrentes sejam aplicadas depois da reconstrução
+        lock.writeLock().lock();
+        try {
+            todas.clear();
+            porStatus.clear();
+            porTag.clear();
+            for (Object[] linha : repository.findIdsEStatus()) {
+                long id = (Long) linha[0];
+                todas.addLong(id);
+                if (linha[1] != null) {
+                    porStatus.computeIfAbsent((String) linha[1], s -> new Roaring64NavigableMap()).addLong(id);
+                }
+            }
+            for (Object[] linha : repository.findIdsETags()) {
+                porTag.computeIfAbsent((String) linha[1], t -> new Roaring64NavigableMap()).addLong((Long) linha[0]);
+            }
+            todas.runOptimize();
+            porStatus.values().forEach(Roaring64NavigableMap::runOptimize);
+            porTag.values().forEach(Roaring64NavigableMap::runOptimize);
+            pronto = true;
+            log.info("Índice de tarefas reconstruído: {} tarefas, {} status, {} tags",
+                    todas.getLongCardinality(), porStatus.size(), porTag.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void registrar(Tarefa tarefa) {
+        long id = tarefa.getId();
+        lock.writeLock().lock();
+        try {
+            removerDosIndices(id);
+            todas.addLong(id);
+            if (tarefa.getStatus() != null) {
+                porStatus.computeIfAbsent(tarefa.getStatus(), s -> new Roaring64NavigableMap()).addLong(id);
+            }
+            if (tarefa.getTags() != null) {
+                for (String tag : tarefa.getTags()) {
+                    porTag.computeIfAbsent(tag, t -> new Roaring64NavigableMap()).addLong(id);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remover(Long id) {
+        lock.writeLock().lock();
+        try {
+            todas.removeLong(id);
+            removerDosIndices(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Retorna os IDs que satisfazem "status IN (...) AND todas as tags AND NOT nenhuma das semTags".
+     * Coleções nulas ou vazias não restringem o resultado.
+     */
+    public Roaring64NavigableMap filtrar(Collection<String> status, Collection<String> tags, Collection<String> semTags) {
+        if (!pronto) {
+            throw new IndiceIndisponivelException("O índice de tarefas ainda está sendo construído");
+        }
+        lock.readLock().lock();
+        try {
+            // O resultado é sempre uma cópia, já que and/andNot alteram o próprio bitmap
+            Roaring64NavigableMap resultado = new Roaring64NavigableMap();
+            if (status == null || status.isEmpty()) {
+                resultado.or(todas);
+            } else {
+                for (String s : status) {
+                    resultado.or(porStatus.getOrDefault(s, VAZIO));
+                }
+            }
+            if (tags != null) {
+                for (String tag : tags) {
+                    resultado.and(porTag.getOrDefault(tag, VAZIO));
+                }
+            }
+            if (semTags != null) {
+                for (String tag : semTags) {
+                    resultado.andNot(porTag.getOrDefault(tag, VAZIO));
+                }
+            }
+            return resultado;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long contar(Collection<String> status, Collection<String> tags, Collection<String> semTags) {
+        return filtrar(status, tags, semTags).getLongCardinality();
+    }
+
+    // IDs gerados por IDENTITY crescem com a criação, então a ordem por ID acompanha dataCriacao
+    public static List<Long> paginar(Roaring64NavigableMap ids, int pagina, int tamanho, boolean ascendente) {
+        long total = ids.getLongCardinality();
+        long inicio = (long) pagina * tamanho;
+        List<Long> resultado = new ArrayList<>();
+        for (long i = inicio; i < total && i < inicio + tamanho; i++) {
+            long posicao = ascendente ? i : total - 1 - i;
+            resultado.add(ids.select(posicao));
+        }
+        return resultado;
+    }
+
+    private void removerDosIndices(long id) {
+        porStatus.values().forEach(bitmap -> bitmap.removeLong(id));
+        porTag.values().forEach(bitmap -> bitmap.removeLong(id));
+    }
+}
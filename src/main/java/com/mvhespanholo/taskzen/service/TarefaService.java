@@ -1,44 +1,127 @@
 package com.mvhespanholo.taskzen.service;
 
+import com.mvhespanholo.taskzen.exception.PaginacaoInvalidaException;
 import com.mvhespanholo.taskzen.exception.TarefaNaoEncontradaException;
+import com.mvhespanholo.taskzen.filtro.ConsultaFiltro;
+import com.mvhespanholo.taskzen.filtro.FiltroCompilador;
+import com.mvhespanholo.taskzen.model.PaginaTarefas;
 import com.mvhespanholo.taskzen.model.Tarefa;
 import com.mvhespanholo.taskzen.repository.TarefaRepository;
+import org.roaringbitmap.longlong.Roaring64NavigableMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
 @Service
 public class TarefaService {
 
+    private static final Logger log = LoggerFactory.getLogger(TarefaService.class);
+
+    private static final int TAMANHO_MAXIMO_PAGINA = 100;
+
     @Autowired
     private TarefaRepository repository;
 
+    @Autowired
+    private TarefaBufferEscrita bufferEscrita;
+
+    @Autowired
+    private TarefaIndiceBitmap indice;
+
+    @Autowired
+    private TravasPorTarefa travas;
+
+    @Autowired
+    private FiltroCompilador filtroCompilador;
+
     public Tarefa criarTarefa(Tarefa tarefa) {
-        return repository.save(tarefa);
+        // Um id vindo do cliente faria o save mesclar sobre uma tarefa existente
+        tarefa.setId(null);
+        if (tarefa.getTags() == null) {
+            tarefa.setTags(new HashSet<>());
+        }
+        Tarefa salva = repository.save(tarefa);
+        return travas.executar(salva.getId(), () -> {
+            indice.registrar(salva);
+            return salva;
+        });
+    }
+
+    public List<Tarefa> criarTarefas(List<Tarefa> tarefas) {
+        for (Tarefa tarefa : tarefas) {
+            tarefa.setId(null);
+            if (tarefa.getTags() == null) {
+                tarefa.setTags(new HashSet<>());
+            }
+        }
+        // saveAll grava o lote inteiro em uma única transação
+        List<Tarefa> salvas = repository.saveAll(tarefas);
+        List<Long> ids = salvas.stream().map(Tarefa::getId).toList();
+        return travas.executar(ids, () -> {
+            salvas.forEach(indice::registrar);
+            return salvas;
+        });
     }
 
     public Tarefa atualizarTarefa(Long id, Tarefa tarefaAtualizada) {
-        // Verifica se a tarefa existe, caso contrário lança a exceção personalizada
-        Tarefa tarefa = repository.findById(id)
-            .orElseThrow(() -> new TarefaNaoEncontradaException("Tarefa com ID " + id + " não encontrada"));
+        // Antes da leitura: um lote assíncrono em andamento não pode sobrescrever esta escrita
+        Set<String> tagsPendentes = bufferEscrita.descartar(id);
+
+        // A trava é obtida só depois do descarte, pois o gravador do buffer também a usa
+        return travas.executar(id, () -> {
+            // Verifica se a tarefa existe, caso contrário lança a exceção personalizada
+            Tarefa tarefa = repository.findById(id)
+                .orElseThrow(() -> new TarefaNaoEncontradaException("Tarefa com ID " + id + " não encontrada"));
 
-        // Atualiza os campos da tarefa
-        tarefa.setNome(tarefaAtualizada.getNome());
-        tarefa.setDescricao(tarefaAtualizada.getDescricao());
-        tarefa.setStatus(tarefaAtualizada.getStatus());
-        tarefa.setObservacoes(tarefaAtualizada.getObservacoes());
-        return repository.save(tarefa);
+            // Atualiza os campos da tarefa
+            tarefa.setNome(tarefaAtualizada.getNome());
+            tarefa.setDescricao(tarefaAtualizada.getDescricao());
+            tarefa.setStatus(tarefaAtualizada.getStatus());
+            tarefa.setObservacoes(tarefaAtualizada.getObservacoes());
+            // Sem o campo tags no corpo, as tags atuais são mantidas, incluindo uma alteração
+            // assíncrona já aceita que ainda não foi gravada
+            if (tarefaAtualizada.getTags() != null) {
+                tarefa.substituirTags(tarefaAtualizada.getTags());
+            } else if (tagsPendentes != null) {
+                tarefa.substituirTags(tagsPendentes);
+            }
+            Tarefa salva = repository.save(tarefa);
+            indice.registrar(salva);
+            return salva;
+        });
+    }
+
+    public void atualizarTarefaAssincrona(Long id, Tarefa tarefaAtualizada) {
+        // A gravação é agrupada com outras atualizações pelo buffer de escrita
+        bufferEscrita.enfileirar(id, tarefaAtualizada);
+    }
+
+    public boolean aguardarEscritasPendentes() {
+        return bufferEscrita.aguardarDescarga();
     }
 
     public void deletarTarefa(Long id) {
-        // Verifica se a tarefa existe antes de deletar
-        if (!repository.existsById(id)) {
-            throw new TarefaNaoEncontradaException("Tarefa com ID " + id + " não encontrada");
-        }
-        repository.deleteById(id);
+        bufferEscrita.descartar(id);
+
+        travas.executar(id, () -> {
+            // Verifica se a tarefa existe antes de deletar
+            if (!repository.existsById(id)) {
+                throw new TarefaNaoEncontradaException("Tarefa com ID " + id + " não encontrada");
+            }
+            repository.deleteById(id);
+            indice.remover(id);
+            return null;
+        });
     }
 
     public List<Tarefa> listarTarefas() {
@@ -46,23 +129,91 @@ public class TarefaService {
     }
 
     public List<Tarefa> filtrarTarefas(String status, String nome, String ordem) {
-        Sort sort = ordem != null && ordem.equalsIgnoreCase("asc")
-            ? Sort.by("dataCriacao").ascending()
-            : Sort.by("dataCriacao").descending();
+        Sort sort = Sort.by(direcao(ordem), "dataCriacao");
+        Specification<Tarefa> especificacao = especificacao(status, nome);
+        return especificacao != null
+            ? repository.findAll(especificacao, sort)
+            : repository.findAll(sort);
+    }
+
+    // Uma página por chamada, para quem percorre a listagem aos poucos; o ID desempata a ordem entre páginas
+    public List<Tarefa> filtrarTarefas(String status, String nome, String ordem, int inicio, int limite) {
+        Sort sort = Sort.by(direcao(ordem), "dataCriacao", "id");
+        return repository.buscarPagina(especificacao(status, nome), sort, inicio, limite);
+    }
+
+    private static Sort.Direction direcao(String ordem) {
+        return ordem != null && ordem.equalsIgnoreCase("asc") ? Sort.Direction.ASC : Sort.Direction.DESC;
+    }
 
+    private static Specification<Tarefa> especificacao(String status, String nome) {
         if (status != null && nome != null) {
-            return repository.findAll(Specification.where((root, query, cb) -> cb.and(
+            return Specification.where((root, query, cb) -> cb.and(
                     cb.equal(root.get("status"), status),
                     cb.like(cb.lower(root.get("nome")), "%" + nome.toLowerCase() + "%")
-            )), sort);
+            ));
         } else if (status != null) {
-            return repository.findAll(Specification.where((root, query, cb) ->
-                    cb.equal(root.get("status"), status)), sort);
+            return Specification.where((root, query, cb) ->
+                    cb.equal(root.get("status"), status));
         } else if (nome != null) {
-            return repository.findAll(Specification.where((root, query, cb) ->
-                    cb.like(cb.lower(root.get("nome")), "%" + nome.toLowerCase() + "%")), sort);
-        } else {
-            return repository.findAll(sort);
+            return Specification.where((root, query, cb) ->
+                    cb.like(cb.lower(root.get("nome")), "%" + nome.toLowerCase() + "%"));
+        }
+        return null;
+    }
+
+    public List<Tarefa> consultarTarefas(String filtro, String ordenarPor, String ordem) {
+        // Filtros com a mesma forma reaproveitam o plano compilado e só trocam os parâmetros
+        ConsultaFiltro consulta = filtroCompilador.compilar(filtro, ordenarPor, ordem);
+        return repository.executarConsulta(consulta);
+    }
+
+    public List<Tarefa> consultarTarefas(String filtro, String ordenarPor, String ordem, int inicio, int limite) {
+        ConsultaFiltro consulta = filtroCompilador.compilar(filtro, ordenarPor, ordem);
+        return repository.executarConsulta(consulta, inicio, limite);
+    }
+
+    public PaginaTarefas buscarTarefas(List<String> status, List<String> tags, List<String> semTags,
+                                       int pagina, int tamanho, String ordem) {
+        if (pagina < 0 || tamanho < 1 || tamanho > TAMANHO_MAXIMO_PAGINA) {
+            throw new PaginacaoInvalidaException("A página deve ser >= 0 e o tamanho entre 1 e " + TAMANHO_MAXIMO_PAGINA);
+        }
+        boolean ascendente = ordem != null && ordem.equalsIgnoreCase("asc");
+
+        // O filtro é resolvido no índice; o banco só recebe os IDs da página
+        while (true) {
+            Roaring64NavigableMap ids = indice.filtrar(status, tags, semTags);
+            List<Long> idsPagina = TarefaIndiceBitmap.paginar(ids, pagina, tamanho, ascendente);
+            Map<Long, Tarefa> porId = new HashMap<>();
+            if (!idsPagina.isEmpty()) {
+                repository.findAllById(idsPagina).forEach(t -> porId.put(t.getId(), t));
+            }
+            List<Long> ausentes = idsPagina.stream().filter(id -> !porId.containsKey(id)).toList();
+            // IDs de tarefas já removidas do banco: corrige o índice e refaz a página,
+            // para que o total e o tamanho da página continuem corretos
+            if (ausentes.isEmpty() || !removerDoIndice(ausentes)) {
+                List<Tarefa> conteudo = idsPagina.stream().map(porId::get).filter(Objects::nonNull).toList();
+                return new PaginaTarefas(conteudo, pagina, tamanho, ids.getLongCardinality());
+            }
         }
     }
-}
\ No newline at end of file
+
+    private boolean removerDoIndice(List<Long> ausentes) {
+        log.warn("Índice continha {} tarefas removidas do banco: {}", ausentes.size(), ausentes);
+        boolean removeu = false;
+        for (Long id : ausentes) {
+            removeu |= travas.executar(id, () -> {
+                if (repository.existsById(id)) {
+                    return false;
+                }
+                indice.remover(id);
+                return true;
+            });
+        }
+        return removeu;
+    }
+
+    public long contarTarefas(List<String> status, List<String> tags, List<String> semTags) {
+        return indice.contar(status, tags, semTags);
+    }
+}
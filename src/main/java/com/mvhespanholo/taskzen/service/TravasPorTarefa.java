@@ -0,0 +1,57 @@
+package com.mvhespanholo.taskzen.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Travas por faixa de ID de tarefa. A gravação no banco e a atualização do
+ * {@link TarefaIndiceBitmap} ocorrem sob a mesma trava, para que o índice receba as
+ * alterações de uma tarefa na mesma ordem em que foram confirmadas.
+ */
+@Component
+public class TravasPorTarefa {
+
+    private static final int FAIXAS = 64;
+
+    private final ReentrantLock[] travas = new ReentrantLock[FAIXAS];
+
+    public TravasPorTarefa() {
+        for (int i = 0; i < FAIXAS; i++) {
+            travas[i] = new ReentrantLock();
+        }
+    }
+
+    public <T> T executar(Long id, Supplier<T> acao) {
+        ReentrantLock trava = travas[faixa(id)];
+        trava.lock();
+        try {
+            return acao.get();
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    // As faixas são travadas sempre em ordem crescente, para que dois lotes não se bloqueiem mutuamente
+    public <T> T executar(Collection<Long> ids, Supplier<T> acao) {
+        int[] faixas = ids.stream().mapToInt(TravasPorTarefa::faixa).distinct().sorted().toArray();
+        int travadas = 0;
+        try {
+            for (int faixa : faixas) {
+                travas[faixa].lock();
+                travadas++;
+            }
+            return acao.get();
+        } finally {
+            for (int i = travadas - 1; i >= 0; i--) {
+                travas[faixas[i]].unlock();
+            }
+        }
+    }
+
+    private static int faixa(Long id) {
+        return Math.floorMod(Long.hashCode(id), FAIXAS);
+    }
+}
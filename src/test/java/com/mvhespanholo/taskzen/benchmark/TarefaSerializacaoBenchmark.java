@@ -0,0 +1,102 @@
+package com.mvhespanholo.taskzen.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.mvhespanholo.taskzen.grpc.TarefaProtoMapper;
+import com.mvhespanholo.taskzen.grpc.proto.TarefaMensagem;
+import com.mvhespanholo.taskzen.model.Tarefa;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara o custo de CPU do lado do cliente entre o caminho REST (JSON com datas em texto,
+ * configurado como o ObjectMapper do Spring Boot) e o caminho gRPC (protobuf com Timestamp).
+ * Executar pelo método main com o classpath de teste; não roda junto com os testes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class TarefaSerializacaoBenchmark {
+
+    @Param({"1", "100", "1000"})
+    public int quantidade;
+
+    private ObjectMapper objectMapper;
+    private List<Tarefa> tarefas;
+    private byte[] json;
+    private List<byte[]> mensagens;
+
+    @Setup
+    public void setUp() throws IOException {
+        objectMapper = JsonMapper.builder()
+                .findAndAddModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+
+        tarefas = new ArrayList<>();
+        for (int i = 0; i < quantidade; i++) {
+            Tarefa tarefa = new Tarefa();
+            tarefa.setId((long) i + 1);
+            tarefa.setNome("Tarefa " + i);
+            tarefa.setDescricao("Descrição da tarefa número " + i);
+            tarefa.setStatus(i % 2 == 0 ? "Pendente" : "Concluída");
+            tarefa.setObservacoes("Observações " + i);
+            tarefa.setTags(Set.of("trabalho", "urgente"));
+            tarefa.setDataCriacao(LocalDateTime.now().minusDays(i));
+            tarefa.setDataAtualizacao(LocalDateTime.now());
+            tarefas.add(tarefa);
+        }
+
+        json = objectMapper.writeValueAsBytes(tarefas);
+        mensagens = new ArrayList<>();
+        for (Tarefa tarefa : tarefas) {
+            mensagens.add(TarefaProtoMapper.paraMensagem(tarefa).toByteArray());
+        }
+    }
+
+    @Benchmark
+    public byte[] restSerializar() throws IOException {
+        return objectMapper.writeValueAsBytes(tarefas);
+    }
+
+    @Benchmark
+    public List<Tarefa> restDesserializar() throws IOException {
+        return objectMapper.readValue(json, new TypeReference<List<Tarefa>>() { });
+    }
+
+    // Uma mensagem por tarefa, como no stream de ListarTarefas
+    @Benchmark
+    public void grpcSerializar(Blackhole blackhole) {
+        for (Tarefa tarefa : tarefas) {
+            blackhole.consume(TarefaProtoMapper.paraMensagem(tarefa).toByteArray());
+        }
+    }
+
+    @Benchmark
+    public void grpcDesserializar(Blackhole blackhole) throws IOException {
+        for (byte[] mensagem : mensagens) {
+            blackhole.consume(TarefaProtoMapper.paraTarefa(TarefaMensagem.parseFrom(mensagem)));
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(TarefaSerializacaoBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -1,9 +1,18 @@
 package com.mvhespanholo.taskzen.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mvhespanholo.taskzen.model.PaginaTarefas;
+import com.mvhespanholo.taskzen.monitoramento.PerfilConsultas;
 import com.mvhespanholo.taskzen.model.Tarefa;
 import com.mvhespanholo.taskzen.service.TarefaService;
+import com.mvhespanholo.taskzen.exception.EscritaAssincronaIndisponivelException;
+import com.mvhespanholo.taskzen.exception.FiltroInvalidoException;
+import com.mvhespanholo.taskzen.exception.IndiceIndisponivelException;
+import com.mvhespanholo.taskzen.exception.PaginacaoInvalidaException;
 import com.mvhespanholo.taskzen.exception.TarefaNaoEncontradaException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validation;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
@@ -15,6 +24,7 @@ import org.springframework.test.web.servlet.MockMvc;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Set;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
@@ -30,6 +40,9 @@ public class TarefaControllerTest {
     @MockBean
     private TarefaService tarefaService;
 
+    @MockBean
+    private PerfilConsultas perfilConsultas;
+
     private Tarefa tarefa;
 
     @BeforeEach
@@ -95,6 +108,64 @@ public class TarefaControllerTest {
                 .andExpect(content().string(org.hamcrest.Matchers.containsString("Tarefa não encontrada")));
     }
 
+    @Test
+    public void testAtualizarTarefaAssincrona() throws Exception {
+        mockMvc.perform(put("/api/tarefas/1")
+                .param("assincrono", "true")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(new ObjectMapper().writeValueAsString(tarefa)))
+                .andExpect(status().isAccepted());
+
+        Mockito.verify(tarefaService).atualizarTarefaAssincrona(eq(1L), any(Tarefa.class));
+    }
+
+    @Test
+    public void testAtualizarTarefaAssincronaComBufferCheio() throws Exception {
+        Mockito.doThrow(new EscritaAssincronaIndisponivelException("Buffer cheio"))
+               .when(tarefaService).atualizarTarefaAssincrona(eq(1L), any(Tarefa.class));
+
+        mockMvc.perform(put("/api/tarefas/1")
+                .param("assincrono", "true")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(new ObjectMapper().writeValueAsString(tarefa)))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(jsonPath("$.error").value("Escrita assíncrona indisponível"));
+    }
+
+    @Test
+    public void testAtualizarTarefaAssincronaComDadosInvalidos() throws Exception {
+        Tarefa invalida = new Tarefa();
+        invalida.setNome("x".repeat(101));
+        Set<ConstraintViolation<Tarefa>> violacoes = Validation.buildDefaultValidatorFactory().getValidator()
+                .validateProperty(invalida, "nome");
+        Mockito.doThrow(new ConstraintViolationException(violacoes))
+               .when(tarefaService).atualizarTarefaAssincrona(eq(1L), any(Tarefa.class));
+
+        mockMvc.perform(put("/api/tarefas/1")
+                .param("assincrono", "true")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(new ObjectMapper().writeValueAsString(invalida)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Erro de validação"))
+                .andExpect(jsonPath("$.fieldErrors.nome").exists());
+    }
+
+    @Test
+    public void testSincronizar() throws Exception {
+        Mockito.when(tarefaService.aguardarEscritasPendentes()).thenReturn(true);
+
+        mockMvc.perform(post("/api/tarefas/sincronizar"))
+                .andExpect(status().isNoContent());
+    }
+
+    @Test
+    public void testSincronizarComTimeout() throws Exception {
+        Mockito.when(tarefaService.aguardarEscritasPendentes()).thenReturn(false);
+
+        mockMvc.perform(post("/api/tarefas/sincronizar"))
+                .andExpect(status().isServiceUnavailable());
+    }
+
     @Test
     public void testDeletarTarefa() throws Exception {
         mockMvc.perform(delete("/api/tarefas/1"))
@@ -161,4 +232,82 @@ public class TarefaControllerTest {
                 .andExpect(jsonPath("$[0].nome").value("Estudar"))
                 .andExpect(jsonPath("$[0].status").value("Pendente"));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testListarTarefasComFiltroExpressao() throws Exception {
+        Mockito.when(tarefaService.consultarTarefas(eq("status in (Pendente) and nome ~ 'Estudar'"), eq("nome"), eq("asc")))
+                .thenReturn(List.of(tarefa));
+
+        mockMvc.perform(get("/api/tarefas")
+                .param("filtro", "status in (Pendente) and nome ~ 'Estudar'")
+                .param("ordenarPor", "nome")
+                .param("ordem", "asc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].nome").value("Estudar"));
+    }
+
+    @Test
+    public void testListarTarefasComFiltroInvalido() throws Exception {
+        Mockito.when(tarefaService.consultarTarefas(eq("prioridade = 1"), eq(null), eq("desc")))
+                .thenThrow(new FiltroInvalidoException("Campo desconhecido no filtro: prioridade"));
+
+        mockMvc.perform(get("/api/tarefas")
+                .param("filtro", "prioridade = 1"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Filtro inválido"));
+    }
+
+    @Test
+    public void testListarTarefasComFiltroEStatusAoMesmoTempo() throws Exception {
+        mockMvc.perform(get("/api/tarefas")
+                .param("filtro", "nome = a")
+                .param("status", "Pendente"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void testBuscarTarefasPorStatusETags() throws Exception {
+        Mockito.when(tarefaService.buscarTarefas(eq(List.of("Pendente", "Em andamento")), eq(List.of("casa")),
+                        eq(List.of("urgente")), eq(0), eq(20), eq("desc")))
+                .thenReturn(new PaginaTarefas(List.of(tarefa), 0, 20, 1));
+
+        mockMvc.perform(get("/api/tarefas/busca")
+                .param("status", "Pendente", "Em andamento")
+                .param("tag", "casa")
+                .param("semTag", "urgente"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(1))
+                .andExpect(jsonPath("$.conteudo[0].nome").value("Estudar"));
+    }
+
+    @Test
+    public void testBuscarTarefasComPaginaInvalida() throws Exception {
+        Mockito.when(tarefaService.buscarTarefas(eq(null), eq(null), eq(null), eq(0), eq(500), eq("desc")))
+                .thenThrow(new PaginacaoInvalidaException("Tamanho inválido"));
+
+        mockMvc.perform(get("/api/tarefas/busca")
+                .param("tamanho", "500"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Paginação inválida"));
+    }
+
+    @Test
+    public void testBuscarTarefasAntesDoIndiceFicarPronto() throws Exception {
+        Mockito.when(tarefaService.contarTarefas(eq(null), eq(null), eq(null)))
+                .thenThrow(new IndiceIndisponivelException("O índice de tarefas ainda está sendo construído"));
+
+        mockMvc.perform(get("/api/tarefas/busca/contagem"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(jsonPath("$.error").value("Índice indisponível"));
+    }
+
+    @Test
+    public void testContarTarefas() throws Exception {
+        Mockito.when(tarefaService.contarTarefas(eq(List.of("Pendente")), eq(null), eq(null))).thenReturn(7L);
+
+        mockMvc.perform(get("/api/tarefas/busca/contagem")
+                .param("status", "Pendente"))
+                .andExpect(status().isOk())
+                .andExpect(content().string("7"));
+    }
+}
@@ -0,0 +1,133 @@
+package com.mvhespanholo.taskzen.filtro;
+
+import com.mvhespanholo.taskzen.exception.FiltroInvalidoException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FiltroCompiladorTest {
+
+    private FiltroCompilador compilador;
+
+    @BeforeEach
+    void setUp() {
+        compilador = new FiltroCompilador(2);
+    }
+
+    @Test
+    void deveCompilarExpressaoEmConsultaParametrizada() {
+        ConsultaFiltro consulta = compilador.compilar(
+                "status in (Pendente, 'Em andamento') and dataCriacao > 2024-01-01 and nome ~ 'Estudar'", null, null);
+
+        assertEquals("select t from Tarefa t where ((t.status in :p0 and t.dataCriacao > :p1) "
+                + "and lower(t.nome) like :p2 escape '\\') order by t.dataCriacao desc, t.id desc", consulta.plano().jpql());
+        assertEquals(List.of(
+                List.of("Pendente", "Em andamento"),
+                LocalDateTime.of(2024, 1, 1, 0, 0),
+                "%estudar%"), consulta.parametros());
+    }
+
+    @Test
+    void deveRespeitarPrecedenciaEParenteses() {
+        ConsultaFiltro consulta = compilador.compilar(
+                "not status = Concluída or (tags = casa and id >= 10)", "nome", "asc");
+
+        assertEquals("select t from Tarefa t where (not (t.status = :p0) or (:p1 member of t.tags and t.id >= :p2)) "
+                + "order by t.nome asc, t.id asc", consulta.plano().jpql());
+        assertEquals(List.of("Concluída", "casa", 10L), consulta.parametros());
+    }
+
+    @Test
+    void deveReaproveitarPlanoParaFiltrosComMesmaForma() {
+        ConsultaFiltro primeira = compilador.compilar("status in (A, B) and nome ~ 'x'", null, null);
+        ConsultaFiltro segunda = compilador.compilar("STATUS IN (C)   AND  nome ~ 'outro'", null, null);
+
+        assertSame(primeira.plano(), segunda.plano());
+        assertEquals(List.of(List.of("C"), "%outro%"), segunda.parametros());
+        assertEquals(1, compilador.getTamanhoCache());
+    }
+
+    @Test
+    void deveLimitarTamanhoDoCache() {
+        compilador.compilar("nome = a", null, null);
+        compilador.compilar("status = a", null, null);
+        compilador.compilar("descricao = a", null, null);
+
+        assertEquals(2, compilador.getTamanhoCache());
+    }
+
+    @Test
+    void deveEscaparCuringasDoLike() {
+        ConsultaFiltro consulta = compilador.compilar("nome ~ '100%_ok'", null, null);
+
+        assertEquals(List.of("%100\\%\\_ok%"), consulta.parametros());
+    }
+
+    @Test
+    void deveCompilarSemFiltroApenasComOrdenacao() {
+        ConsultaFiltro consulta = compilador.compilar(null, "dataAtualizacao", "asc");
+
+        assertEquals("select t from Tarefa t order by t.dataAtualizacao asc, t.id asc", consulta.plano().jpql());
+        assertTrue(consulta.parametros().isEmpty());
+    }
+
+    @Test
+    void deveRejeitarCampoDesconhecido() {
+        assertThrows(FiltroInvalidoException.class, () -> compilador.compilar("prioridade = 1", null, null));
+    }
+
+    @Test
+    void deveRejeitarOperadorNaoAceitoPeloCampo() {
+        assertThrows(FiltroInvalidoException.class, () -> compilador.compilar("nome > 'a'", null, null));
+        assertThrows(FiltroInvalidoException.class, () -> compilador.compilar("dataCriacao ~ 2024", null, null));
+    }
+
+    @Test
+    void deveRejeitarValorInvalidoParaOTipoDoCampo() {
+        assertThrows(FiltroInvalidoException.class, () -> compilador.compilar("dataCriacao > ontem", null, null));
+        assertThrows(FiltroInvalidoException.class, () -> compilador.compilar("id = abc", null, null));
+    }
+
+    @Test
+    void deveRejeitarSintaxeInvalida() {
+        assertThrows(FiltroInvalidoException.class, () -> compilador.compilar("status = ", null, null));
+        assertThrows(FiltroInvalidoException.class, () -> compilador.compilar("(status = A", null, null));
+        assertThrows(FiltroInvalidoException.class, () -> compilador.compilar("status in (A, B", null, null));
+        assertThrows(FiltroInvalidoException.class, () -> compilador.compilar("nome = 'aberto", null, null));
+        assertThrows(FiltroInvalidoException.class, () -> compilador.compilar("status = A status = B", null, null));
+    }
+
+    @Test
+    void deveRejeitarFiltroMuitoLongo() {
+        String filtro = "nome = '" + "a".repeat(FormaFiltro.TAMANHO_MAXIMO) + "'";
+
+        assertThrows(FiltroInvalidoException.class, () -> compilador.compilar(filtro, null, null));
+    }
+
+    @Test
+    void deveRejeitarAninhamentoExcessivo() {
+        int niveis = FiltroParser.PROFUNDIDADE_MAXIMA + 1;
+        String parenteses = "(".repeat(niveis) + "nome = a" + ")".repeat(niveis);
+        String negacoes = "not ".repeat(niveis) + "nome = a";
+
+        assertThrows(FiltroInvalidoException.class, () -> compilador.compilar(parenteses, null, null));
+        assertThrows(FiltroInvalidoException.class, () -> compilador.compilar(negacoes, null, null));
+    }
+
+    @Test
+    void deveAceitarAninhamentoNoLimite() {
+        int niveis = FiltroParser.PROFUNDIDADE_MAXIMA;
+        String filtro = "(".repeat(niveis) + "nome = a" + ")".repeat(niveis);
+
+        assertEquals(List.of("a"), compilador.compilar(filtro, null, null).parametros());
+    }
+
+    @Test
+    void deveRejeitarOrdenacaoPorTags() {
+        assertThrows(FiltroInvalidoException.class, () -> compilador.compilar(null, "tags", null));
+    }
+}
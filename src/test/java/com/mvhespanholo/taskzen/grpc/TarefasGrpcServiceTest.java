@@ -0,0 +1,291 @@
+package com.mvhespanholo.taskzen.grpc;
+
+import com.mvhespanholo.taskzen.exception.TarefaNaoEncontradaException;
+import com.mvhespanholo.taskzen.grpc.proto.CriarTarefasResponse;
+import com.mvhespanholo.taskzen.grpc.proto.DeletarTarefaRequest;
+import com.mvhespanholo.taskzen.grpc.proto.ListarTarefasRequest;
+import com.mvhespanholo.taskzen.grpc.proto.TarefaMensagem;
+import com.mvhespanholo.taskzen.grpc.proto.TarefasGrpc;
+import com.mvhespanholo.taskzen.model.Tarefa;
+import com.mvhespanholo.taskzen.service.TarefaService;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.protobuf.StatusProto;
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ClientResponseObserver;
+import io.grpc.stub.StreamObserver;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class TarefasGrpcServiceTest {
+
+    @InjectMocks
+    private TarefasGrpcService grpcService;
+
+    @Mock
+    private TarefaService service;
+
+    @Spy
+    private Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+    private Server servidor;
+    private ManagedChannel canal;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        MockitoAnnotations.openMocks(this);
+        String nome = InProcessServerBuilder.generateName();
+        servidor = InProcessServerBuilder.forName(nome).directExecutor().addService(grpcService).build().start();
+        canal = InProcessChannelBuilder.forName(nome).directExecutor().build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        canal.shutdownNow();
+        servidor.shutdownNow();
+    }
+
+    private TarefaMensagem criarMensagem(String nome) {
+        return TarefaMensagem.newBuilder()
+                .setNome(nome)
+                .setDescricao("Estudar para a prova")
+                .setStatus("Pendente")
+                .addTags("estudo")
+                .build();
+    }
+
+    private Tarefa criarTarefa(Long id, String nome) {
+        Tarefa tarefa = new Tarefa();
+        tarefa.setId(id);
+        tarefa.setNome(nome);
+        tarefa.setDescricao("Estudar para a prova");
+        tarefa.setStatus("Pendente");
+        tarefa.setTags(Set.of("estudo"));
+        tarefa.setDataCriacao(LocalDateTime.of(2024, 5, 10, 8, 30, 15, 123_000_000));
+        return tarefa;
+    }
+
+    @Test
+    void deveConverterTarefaEmMensagemEDeVolta() {
+        Tarefa original = criarTarefa(7L, "Estudar");
+
+        Tarefa convertida = TarefaProtoMapper.paraTarefa(TarefaProtoMapper.paraMensagem(original));
+
+        assertEquals(7L, convertida.getId());
+        assertEquals("Estudar", convertida.getNome());
+        assertNull(convertida.getObservacoes());
+        assertEquals(Set.of("estudo"), convertida.getTags());
+        assertEquals(original.getDataCriacao(), convertida.getDataCriacao());
+    }
+
+    @Test
+    void deveCriarTarefa() {
+        when(service.criarTarefa(any(Tarefa.class))).thenReturn(criarTarefa(1L, "Estudar"));
+
+        TarefaMensagem criada = TarefasGrpc.newBlockingStub(canal).criarTarefa(criarMensagem("Estudar"));
+
+        assertEquals(1L, criada.getId());
+        assertEquals("Estudar", criada.getNome());
+    }
+
+    @Test
+    void deveRejeitarTarefaInvalidaComAsMesmasRegrasDoRest() {
+        StatusRuntimeException erro = assertThrows(StatusRuntimeException.class,
+                () -> TarefasGrpc.newBlockingStub(canal).criarTarefa(TarefaMensagem.newBuilder().setStatus("Pendente").build()));
+
+        assertEquals(Status.Code.INVALID_ARGUMENT, erro.getStatus().getCode());
+        assertTrue(erro.getStatus().getDescription().contains("O nome da tarefa é obrigatório"));
+        verify(service, never()).criarTarefa(any(Tarefa.class));
+    }
+
+    @Test
+    void deveRetornarNotFoundAoDeletarTarefaInexistente() {
+        doThrow(new TarefaNaoEncontradaException("Tarefa com ID 999 não encontrada")).when(service).deletarTarefa(999L);
+
+        StatusRuntimeException erro = assertThrows(StatusRuntimeException.class,
+                () -> TarefasGrpc.newBlockingStub(canal).deletarTarefa(DeletarTarefaRequest.newBuilder().setId(999L).build()));
+
+        assertEquals(Status.Code.NOT_FOUND, erro.getStatus().getCode());
+    }
+
+    @Test
+    void deveListarTarefasEmStream() {
+        when(service.filtrarTarefas("Pendente", null, "desc", 0, 100))
+                .thenReturn(List.of(criarTarefa(1L, "A"), criarTarefa(2L, "B"), criarTarefa(3L, "C")));
+
+        Iterator<TarefaMensagem> stream = TarefasGrpc.newBlockingStub(canal)
+                .listarTarefas(ListarTarefasRequest.newBuilder().setStatus("Pendente").build());
+
+        List<String> nomes = new ArrayList<>();
+        stream.forEachRemaining(m -> nomes.add(m.getNome()));
+        assertEquals(List.of("A", "B", "C"), nomes);
+    }
+
+    @Test
+    void deveBuscarProximaPaginaApenasQuandoOClienteTemDemanda() throws Exception {
+        when(service.filtrarTarefas(isNull(), isNull(), eq("desc"), anyInt(), eq(100))).thenAnswer(invocacao -> {
+            int inicio = invocacao.getArgument(3);
+            List<Tarefa> pagina = new ArrayList<>();
+            for (int i = inicio; i < Math.min(inicio + 100, 250); i++) {
+                pagina.add(criarTarefa((long) i, "T" + i));
+            }
+            return pagina;
+        });
+
+        AtomicInteger recebidas = new AtomicInteger();
+        CountDownLatch primeira = new CountDownLatch(1);
+        CompletableFuture<Void> fim = new CompletableFuture<>();
+        AtomicReference<ClientCallStreamObserver<ListarTarefasRequest>> chamada = new AtomicReference<>();
+        TarefasGrpc.newStub(canal).listarTarefas(ListarTarefasRequest.getDefaultInstance(),
+                new ClientResponseObserver<ListarTarefasRequest, TarefaMensagem>() {
+                    @Override
+                    public void beforeStart(ClientCallStreamObserver<ListarTarefasRequest> requestStream) {
+                        // Controle de fluxo manual: o servidor só fica pronto para o que for pedido
+                        requestStream.disableAutoRequestWithInitial(1);
+                        chamada.set(requestStream);
+                    }
+
+                    @Override
+                    public void onNext(TarefaMensagem value) {
+                        recebidas.incrementAndGet();
+                        primeira.countDown();
+                    }
+
+                    @Override
+                    public void onError(Throwable t) {
+                        fim.completeExceptionally(t);
+                    }
+
+                    @Override
+                    public void onCompleted() {
+                        fim.complete(null);
+                    }
+                });
+
+        assertTrue(primeira.await(5, TimeUnit.SECONDS));
+        Thread.sleep(100);
+        assertEquals(1, recebidas.get());
+        assertFalse(fim.isDone());
+        verify(service, times(1)).filtrarTarefas(isNull(), isNull(), eq("desc"), anyInt(), eq(100));
+
+        chamada.get().request(Integer.MAX_VALUE);
+        fim.get(5, TimeUnit.SECONDS);
+        assertEquals(250, recebidas.get());
+        verify(service).filtrarTarefas(null, null, "desc", 100, 100);
+        verify(service).filtrarTarefas(null, null, "desc", 200, 100);
+    }
+
+    @Test
+    void deveListarComFiltroExpressao() {
+        when(service.consultarTarefas("status = Pendente", null, "asc", 0, 100)).thenReturn(List.of(criarTarefa(1L, "A")));
+
+        Iterator<TarefaMensagem> stream = TarefasGrpc.newBlockingStub(canal)
+                .listarTarefas(ListarTarefasRequest.newBuilder().setFiltro("status = Pendente").setOrdem("asc").build());
+
+        assertEquals("A", stream.next().getNome());
+        assertFalse(stream.hasNext());
+    }
+
+    @Test
+    void deveCriarTarefasEmLoteReportandoInvalidas() throws Exception {
+        AtomicLong ids = new AtomicLong();
+        when(service.criarTarefas(anyList())).thenAnswer(invocacao -> {
+            List<Tarefa> tarefas = invocacao.getArgument(0);
+            tarefas.forEach(t -> t.setId(ids.incrementAndGet()));
+            return new ArrayList<>(tarefas);
+        });
+
+        CompletableFuture<CriarTarefasResponse> resposta = new CompletableFuture<>();
+        StreamObserver<TarefaMensagem> envio = TarefasGrpc.newStub(canal).criarTarefas(new StreamObserver<>() {
+            @Override
+            public void onNext(CriarTarefasResponse value) {
+                resposta.complete(value);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                resposta.completeExceptionally(t);
+            }
+
+            @Override
+            public void onCompleted() {
+            }
+        });
+        envio.onNext(criarMensagem("A"));
+        envio.onNext(TarefaMensagem.newBuilder().setNome("Sem descrição").setStatus("Pendente").build());
+        envio.onNext(criarMensagem("C"));
+        envio.onCompleted();
+
+        CriarTarefasResponse resultado = resposta.get(5, TimeUnit.SECONDS);
+        assertEquals(2, resultado.getCriadas());
+        assertEquals(List.of(1L, 2L), resultado.getIdsList());
+        assertEquals(1, resultado.getErrosCount());
+        assertEquals(1, resultado.getErros(0).getIndice());
+        assertTrue(resultado.getErros(0).getCamposMap().containsKey("descricao"));
+    }
+
+    @Test
+    void deveInformarIdsGravadosQuandoUmLoteFalha() throws Exception {
+        AtomicLong ids = new AtomicLong();
+        when(service.criarTarefas(anyList())).thenAnswer(invocacao -> {
+            List<Tarefa> tarefas = invocacao.getArgument(0);
+            tarefas.forEach(t -> t.setId(ids.incrementAndGet()));
+            return new ArrayList<>(tarefas);
+        }).thenThrow(new RuntimeException("Falha no banco"));
+
+        CompletableFuture<CriarTarefasResponse> resposta = new CompletableFuture<>();
+        StreamObserver<TarefaMensagem> envio = TarefasGrpc.newStub(canal).criarTarefas(new StreamObserver<>() {
+            @Override
+            public void onNext(CriarTarefasResponse value) {
+                resposta.complete(value);
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                resposta.completeExceptionally(t);
+            }
+
+            @Override
+            public void onCompleted() {
+            }
+        });
+        for (int i = 0; i < 101; i++) {
+            envio.onNext(criarMensagem("Tarefa " + i));
+        }
+        envio.onCompleted();
+
+        ExecutionException falha = assertThrows(ExecutionException.class, () -> resposta.get(5, TimeUnit.SECONDS));
+        com.google.rpc.Status status = StatusProto.fromThrowable(falha.getCause());
+        assertNotNull(status);
+        assertEquals(Status.Code.INTERNAL.value(), status.getCode());
+        CriarTarefasResponse parcial = status.getDetails(0).unpack(CriarTarefasResponse.class);
+        assertEquals(100, parcial.getCriadas());
+        assertEquals(100, parcial.getIdsCount());
+        assertEquals(100, parcial.getPrimeiroIndiceNaoGravado());
+    }
+}
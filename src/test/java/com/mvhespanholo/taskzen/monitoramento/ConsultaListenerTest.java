@@ -0,0 +1,71 @@
+package com.mvhespanholo.taskzen.monitoramento;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ConsultaListenerTest {
+
+    private static final String SELECT_TAREFA = "select t.id, t.nome from tarefa t where t.id=?";
+
+    private PerfilConsultas perfil;
+
+    @AfterEach
+    void tearDown() {
+        perfil.encerrar();
+    }
+
+    @Test
+    void deveContarLinhasDoResultSetAmostrado() throws SQLException {
+        perfil = new PerfilConsultas(1.0, 100, 3, 10);
+        ConsultaListener listener = new ConsultaListener(perfil, mock(DataSource.class));
+        ResultSet original = mock(ResultSet.class);
+        when(original.next()).thenReturn(true, true, false);
+
+        ResultSet resultSet = executar(listener, original);
+        while (resultSet.next()) {
+            // percorre como o Hibernate faria
+        }
+        resultSet.close();
+
+        assertNotSame(original, resultSet);
+        verify(original).close();
+        RelatorioConsultas.Consulta consulta = perfil.relatorio(10).consultasMaisLentas().get(0);
+        assertEquals(1, consulta.execucoes());
+        assertEquals(2, consulta.linhas());
+    }
+
+    @Test
+    void naoDeveEnvolverResultSetDeComandoNaoAmostrado() throws SQLException {
+        perfil = new PerfilConsultas(0.0, 100, 3, 10);
+        ConsultaListener listener = new ConsultaListener(perfil, mock(DataSource.class));
+        ResultSet original = mock(ResultSet.class);
+
+        ResultSet resultSet = executar(listener, original);
+
+        assertSame(original, resultSet);
+        assertTrue(perfil.relatorio(10).consultasMaisLentas().isEmpty());
+    }
+
+    // Reproduz a ordem de chamadas do datasource-proxy em um executeQuery
+    private static ResultSet executar(ConsultaListener listener, ResultSet original) {
+        ExecutionInfo execInfo = new ExecutionInfo();
+        List<QueryInfo> queries = List.of(new QueryInfo(SELECT_TAREFA));
+
+        listener.beforeQuery(execInfo, queries);
+        ResultSet resultSet = listener.getProxyFactory().createResultSet(original, null, null);
+        execInfo.setResult(resultSet);
+        execInfo.setElapsedTime(5);
+        listener.afterQuery(execInfo, queries);
+        return resultSet;
+    }
+}
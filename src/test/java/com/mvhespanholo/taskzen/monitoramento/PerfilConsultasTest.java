@@ -0,0 +1,122 @@
+package com.mvhespanholo.taskzen.monitoramento;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PerfilConsultasTest {
+
+    private static final String SELECT_TAREFA = "select t.id, t.nome from tarefa t where t.id=?";
+    private static final String SELECT_TAGS = "select tg.tag from tarefa_tags tg where tg.tarefa_id=?";
+
+    private PerfilConsultas perfil;
+
+    @BeforeEach
+    void setUp() {
+        perfil = new PerfilConsultas(1.0, 100, 3, 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        perfil.encerrar();
+    }
+
+    @Test
+    void deveAcumularEstatisticasPorSql() {
+        perfil.registrar(SELECT_TAREFA, 10, null).adicionarLinhas(1);
+        perfil.registrar(SELECT_TAREFA, 30, null).adicionarLinhas(2);
+
+        RelatorioConsultas.Consulta consulta = perfil.relatorio(10).consultasMaisLentas().get(0);
+        assertEquals(2, consulta.execucoes());
+        assertEquals(20.0, consulta.tempoMedioMs());
+        assertEquals(30, consulta.tempoMaximoMs());
+        assertEquals(3, consulta.linhas());
+        assertEquals(0, consulta.lentas());
+    }
+
+    @Test
+    void deveOrdenarPorTempoMaximoELimitarAoTop() {
+        perfil.registrar(SELECT_TAREFA, 10, null);
+        perfil.registrar(SELECT_TAGS, 50, null);
+
+        RelatorioConsultas relatorio = perfil.relatorio(1);
+        assertEquals(1, relatorio.consultasMaisLentas().size());
+        assertEquals(SELECT_TAGS, relatorio.consultasMaisLentas().get(0).sql());
+    }
+
+    @Test
+    void deveIgnorarNovasConsultasAcimaDoMaximo() {
+        perfil.registrar(SELECT_TAREFA, 1, null);
+        perfil.registrar(SELECT_TAGS, 1, null);
+
+        assertNull(perfil.registrar("select 1", 1, null));
+        assertEquals(1, perfil.relatorio(10).consultasIgnoradas());
+    }
+
+    @Test
+    void deveCapturarPlanoDeConsultaLentaUmaUnicaVez() throws InterruptedException {
+        AtomicInteger capturas = new AtomicInteger();
+
+        EstatisticaConsulta estatistica = perfil.registrar(SELECT_TAREFA, 150, () -> {
+            capturas.incrementAndGet();
+            return "Index Scan using tarefa_pkey on tarefa";
+        });
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (estatistica.getPlano() == null && System.nanoTime() < limite) {
+            Thread.sleep(10);
+        }
+        perfil.registrar(SELECT_TAREFA, 300, () -> {
+            capturas.incrementAndGet();
+            return "outro plano";
+        });
+
+        RelatorioConsultas.Consulta consulta = perfil.relatorio(10).consultasMaisLentas().get(0);
+        assertEquals(1, capturas.get());
+        assertEquals(2, consulta.lentas());
+        assertEquals("Index Scan using tarefa_pkey on tarefa", consulta.plano());
+    }
+
+    @Test
+    void deveDetectarConsultaRepetidaNaMesmaRequisicao() {
+        perfil.iniciarRequisicao();
+        perfil.registrar(SELECT_TAREFA, 1, null);
+        for (int i = 0; i < 4; i++) {
+            perfil.registrar(SELECT_TAGS, 1, null);
+        }
+        perfil.finalizarRequisicao("GET /api/tarefas");
+
+        RelatorioConsultas relatorio = perfil.relatorio(10);
+        assertEquals(1, relatorio.suspeitasNMaisUm().size());
+        RelatorioConsultas.SuspeitaNMaisUm suspeita = relatorio.suspeitasNMaisUm().get(0);
+        assertEquals("GET /api/tarefas", suspeita.requisicao());
+        assertEquals(SELECT_TAGS, suspeita.sql());
+        assertEquals(4, suspeita.repeticoes());
+    }
+
+    @Test
+    void naoDeveAmostrarComTaxaZero() {
+        PerfilConsultas semAmostragem = new PerfilConsultas(0.0, 100, 3, 10);
+        try {
+            assertFalse(semAmostragem.amostrar());
+            semAmostragem.iniciarRequisicao();
+            assertFalse(semAmostragem.amostrar());
+            semAmostragem.finalizarRequisicao("GET /api/tarefas");
+        } finally {
+            semAmostragem.encerrar();
+        }
+    }
+
+    @Test
+    void deveLimparEstatisticas() {
+        perfil.registrar(SELECT_TAREFA, 1, null);
+
+        perfil.limpar();
+
+        assertTrue(perfil.relatorio(10).consultasMaisLentas().isEmpty());
+    }
+}
@@ -0,0 +1,263 @@
+package com.mvhespanholo.taskzen.service;
+
+import com.mvhespanholo.taskzen.exception.EscritaAssincronaIndisponivelException;
+import com.mvhespanholo.taskzen.exception.TarefaNaoEncontradaException;
+import com.mvhespanholo.taskzen.model.Tarefa;
+import com.mvhespanholo.taskzen.repository.TarefaRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.*;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class TarefaBufferEscritaTest {
+
+    @Mock
+    private TarefaRepository repository;
+
+    @Mock
+    private TarefaIndiceBitmap indice;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+    private SimpleMeterRegistry meterRegistry;
+
+    private TarefaBufferEscrita buffer;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        meterRegistry = new SimpleMeterRegistry();
+        // Intervalo longo para que apenas a barreira dispare a descarga nos testes
+        buffer = new TarefaBufferEscrita(repository, indice, new TravasPorTarefa(), validator, transactionManager, meterRegistry, 100, 2, 2, 60_000, 5_000);
+        when(repository.existsById(anyLong())).thenReturn(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        buffer.encerrar();
+    }
+
+    private Tarefa criarTarefa(Long id, String nome, String status) {
+        Tarefa tarefa = new Tarefa();
+        tarefa.setId(id);
+        tarefa.setNome(nome);
+        tarefa.setStatus(status);
+        return tarefa;
+    }
+
+    @Test
+    void deveAgruparAtualizacoesDoMesmoIdMantendoUltimaEscritaPorCampo() {
+        Tarefa persistida = criarTarefa(1L, "Estudar", "Pendente");
+        when(repository.findAllById(any())).thenReturn(List.of(persistida));
+
+        buffer.enfileirar(1L, criarTarefa(null, "Estudar Spring", "Em andamento"));
+        buffer.enfileirar(1L, criarTarefa(null, null, "Concluída"));
+
+        assertEquals(1, buffer.getPendentes());
+        assertEquals(1.0, meterRegistry.counter("taskzen.escrita.agrupadas").count());
+        assertTrue(buffer.aguardarDescarga());
+
+        assertEquals("Estudar Spring", persistida.getNome());
+        assertEquals("Concluída", persistida.getStatus());
+        assertEquals(0, buffer.getPendentes());
+        verify(repository, times(1)).saveAll(List.of(persistida));
+        verify(indice).registrar(persistida);
+    }
+
+    @Test
+    void deveManterTagsQuandoAtualizacaoNaoInformaTags() {
+        Tarefa persistida = criarTarefa(1L, "Estudar", "Pendente");
+        persistida.setTags(new HashSet<>(Set.of("casa")));
+        Set<String> colecaoGerenciada = persistida.getTags();
+        when(repository.findAllById(any())).thenReturn(List.of(persistida));
+
+        buffer.enfileirar(1L, criarTarefa(null, null, "Concluída"));
+        assertTrue(buffer.aguardarDescarga());
+
+        assertSame(colecaoGerenciada, persistida.getTags());
+        assertEquals(Set.of("casa"), persistida.getTags());
+        assertEquals("Concluída", persistida.getStatus());
+    }
+
+    @Test
+    void deveRejeitarNovosIdsQuandoCapacidadeForAtingida() {
+        buffer.enfileirar(1L, criarTarefa(null, "A", "Pendente"));
+        buffer.enfileirar(2L, criarTarefa(null, "B", "Pendente"));
+
+        assertThrows(EscritaAssincronaIndisponivelException.class,
+                () -> buffer.enfileirar(3L, criarTarefa(null, "C", "Pendente")));
+
+        // Um ID já presente continua sendo aceito
+        buffer.enfileirar(1L, criarTarefa(null, null, "Concluída"));
+        assertEquals(2, buffer.getPendentes());
+    }
+
+    @Test
+    void deveReenfileirarAtualizacaoQueFalhouEDescartarAposMaximoDeTentativas() {
+        when(repository.findAllById(any())).thenThrow(new RuntimeException("banco indisponível"));
+        when(repository.findById(1L)).thenThrow(new RuntimeException("banco indisponível"));
+
+        buffer.enfileirar(1L, criarTarefa(null, "A", "Pendente"));
+
+        assertFalse(buffer.aguardarDescarga());
+        assertEquals(1, buffer.getPendentes());
+        assertEquals(1.0, meterRegistry.counter("taskzen.escrita.falhas").count());
+
+        assertFalse(buffer.aguardarDescarga());
+        assertEquals(0, buffer.getPendentes());
+        assertEquals(1.0, meterRegistry.counter("taskzen.escrita.descartadas").count());
+    }
+
+    @Test
+    void naoDeveBloquearOLoteQuandoUmaAtualizacaoFalhar() {
+        Tarefa valida = criarTarefa(2L, "B", "Pendente");
+        when(repository.findAllById(any())).thenThrow(new RuntimeException("violação de restrição"));
+        when(repository.findById(1L)).thenThrow(new RuntimeException("violação de restrição"));
+        when(repository.findById(2L)).thenReturn(Optional.of(valida));
+        when(repository.save(valida)).thenReturn(valida);
+
+        buffer.enfileirar(1L, criarTarefa(null, "A", "Pendente"));
+        buffer.enfileirar(2L, criarTarefa(null, null, "Concluída"));
+
+        assertFalse(buffer.aguardarDescarga());
+        assertEquals("Concluída", valida.getStatus());
+        verify(indice).registrar(valida);
+        assertEquals(1, buffer.getPendentes());
+    }
+
+    @Test
+    void deveRejeitarAtualizacaoInvalida() {
+        Tarefa invalida = criarTarefa(null, "x".repeat(101), null);
+
+        assertThrows(ConstraintViolationException.class, () -> buffer.enfileirar(1L, invalida));
+        assertEquals(0, buffer.getPendentes());
+    }
+
+    @Test
+    void deveRejeitarAtualizacaoDeTarefaInexistente() {
+        when(repository.existsById(999L)).thenReturn(false);
+
+        assertThrows(TarefaNaoEncontradaException.class,
+                () -> buffer.enfileirar(999L, criarTarefa(null, null, "Concluída")));
+        assertEquals(0, buffer.getPendentes());
+    }
+
+    @Test
+    void deveDescartarAtualizacaoPendente() {
+        buffer.enfileirar(1L, criarTarefa(null, "A", "Pendente"));
+
+        buffer.descartar(1L);
+
+        assertEquals(0, buffer.getPendentes());
+    }
+
+    @Test
+    void deveDevolverTagsDaAtualizacaoDescartada() {
+        Tarefa comTags = criarTarefa(null, null, null);
+        comTags.setTags(Set.of("urgente"));
+        buffer.enfileirar(1L, comTags);
+        buffer.enfileirar(1L, criarTarefa(null, null, "Concluída"));
+        buffer.enfileirar(2L, criarTarefa(null, null, "Concluída"));
+
+        assertEquals(Set.of("urgente"), buffer.descartar(1L));
+        assertNull(buffer.descartar(2L));
+    }
+
+    @Test
+    void deveAguardarLoteEmGravacaoAntesDeEscritaSincrona() throws Exception {
+        Tarefa persistida = criarTarefa(1L, "A", "Pendente");
+        CountDownLatch gravando = new CountDownLatch(1);
+        CountDownLatch liberarGravacao = new CountDownLatch(1);
+        when(repository.findAllById(any())).thenAnswer(invocacao -> {
+            gravando.countDown();
+            liberarGravacao.await(5, TimeUnit.SECONDS);
+            return List.of(persistida);
+        });
+
+        buffer.enfileirar(1L, criarTarefa(null, null, "Concluída"));
+        CompletableFuture<Boolean> descarga = CompletableFuture.supplyAsync(buffer::aguardarDescarga);
+        assertTrue(gravando.await(5, TimeUnit.SECONDS));
+
+        CompletableFuture<Void> escritaSincrona = CompletableFuture.runAsync(() -> buffer.descartar(1L));
+        Thread.sleep(100);
+        assertFalse(escritaSincrona.isDone());
+
+        liberarGravacao.countDown();
+        escritaSincrona.get(5, TimeUnit.SECONDS);
+        assertTrue(descarga.get(5, TimeUnit.SECONDS));
+        verify(indice).registrar(persistida);
+    }
+
+    @Test
+    void naoDeveReenfileirarFalhaDescartadaPorEscritaSincronaDuranteADescarga() throws Exception {
+        // Lotes de uma tarefa, para que a falha seja liberada antes do fim da descarga
+        buffer.encerrar();
+        buffer = new TarefaBufferEscrita(repository, indice, new TravasPorTarefa(), validator, transactionManager, meterRegistry, 1, 10, 3, 60_000, 5_000);
+        CountDownLatch primeiroLote = new CountDownLatch(1);
+        CountDownLatch liberarPrimeiroLote = new CountDownLatch(1);
+        CountDownLatch ultimoLote = new CountDownLatch(1);
+        CountDownLatch liberarUltimoLote = new CountDownLatch(1);
+        when(repository.findAllById(any())).thenAnswer(invocacao -> {
+            Iterable<Long> ids = invocacao.getArgument(0);
+            long id = ids.iterator().next();
+            if (id == 1L) {
+                throw new RuntimeException("violação de restrição");
+            }
+            CountDownLatch gravando = id == 3L ? primeiroLote : ultimoLote;
+            CountDownLatch liberar = id == 3L ? liberarPrimeiroLote : liberarUltimoLote;
+            gravando.countDown();
+            liberar.await(5, TimeUnit.SECONDS);
+            return List.of(criarTarefa(id, "T" + id, "Pendente"));
+        });
+        when(repository.findById(1L)).thenThrow(new RuntimeException("violação de restrição"));
+
+        // Mantém o gravador ocupado até que as tarefas 1 e 2 estejam no buffer
+        buffer.enfileirar(3L, criarTarefa(null, null, "Concluída"));
+        assertTrue(primeiroLote.await(5, TimeUnit.SECONDS));
+        buffer.enfileirar(1L, criarTarefa(null, "Antigo", null));
+        buffer.enfileirar(2L, criarTarefa(null, null, "Concluída"));
+        liberarPrimeiroLote.countDown();
+
+        // A tarefa 1 já falhou e foi liberada; a escrita síncrona ocorre antes do fim da descarga
+        assertTrue(ultimoLote.await(5, TimeUnit.SECONDS));
+        buffer.descartar(1L);
+        liberarUltimoLote.countDown();
+
+        buffer.aguardarDescarga();
+        assertEquals(0, buffer.getPendentes());
+        verify(repository, times(1)).findById(1L);
+    }
+
+    @Test
+    void deveDrenarBufferAoEncerrar() {
+        Tarefa persistida = criarTarefa(1L, "A", "Pendente");
+        when(repository.findAllById(any())).thenReturn(List.of(persistida));
+
+        buffer.enfileirar(1L, criarTarefa(null, null, "Concluída"));
+        buffer.encerrar();
+
+        assertEquals("Concluída", persistida.getStatus());
+        assertThrows(EscritaAssincronaIndisponivelException.class,
+                () -> buffer.enfileirar(1L, criarTarefa(null, null, "Pendente")));
+    }
+}
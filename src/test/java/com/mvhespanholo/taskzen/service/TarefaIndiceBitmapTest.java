@@ -0,0 +1,119 @@
+package com.mvhespanholo.taskzen.service;
+
+import com.mvhespanholo.taskzen.exception.IndiceIndisponivelException;
+import com.mvhespanholo.taskzen.model.Tarefa;
+import com.mvhespanholo.taskzen.repository.TarefaRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.*;
+import org.roaringbitmap.longlong.Roaring64NavigableMap;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class TarefaIndiceBitmapTest {
+
+    @InjectMocks
+    private TarefaIndiceBitmap indice;
+
+    @Mock
+    private TarefaRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        indice.reconstruir();
+        indice.registrar(criarTarefa(1L, "Pendente", "casa", "urgente"));
+        indice.registrar(criarTarefa(2L, "Pendente", "trabalho"));
+        indice.registrar(criarTarefa(3L, "Em andamento", "trabalho", "urgente"));
+        indice.registrar(criarTarefa(4L, "Concluída", "casa"));
+    }
+
+    private Tarefa criarTarefa(Long id, String status, String... tags) {
+        Tarefa tarefa = new Tarefa();
+        tarefa.setId(id);
+        tarefa.setStatus(status);
+        tarefa.setTags(Set.of(tags));
+        return tarefa;
+    }
+
+    @Test
+    void deveCombinarStatusTagsEExclusaoDeTags() {
+        Roaring64NavigableMap ids = indice.filtrar(List.of("Pendente", "Em andamento"), List.of("urgente"), List.of("casa"));
+
+        assertArrayEquals(new long[]{3}, ids.toArray());
+    }
+
+    @Test
+    void deveRetornarTodasQuandoSemFiltros() {
+        assertEquals(4, indice.contar(null, null, null));
+    }
+
+    @Test
+    void deveRetornarVazioParaStatusOuTagDesconhecidos() {
+        assertEquals(0, indice.contar(List.of("Arquivada"), null, null));
+        assertEquals(0, indice.contar(null, List.of("inexistente"), null));
+    }
+
+    @Test
+    void deveMoverTarefaAoAtualizarStatusETags() {
+        indice.registrar(criarTarefa(1L, "Concluída"));
+
+        assertEquals(1, indice.contar(List.of("Pendente"), null, null));
+        assertEquals(2, indice.contar(List.of("Concluída"), null, null));
+        assertEquals(1, indice.contar(null, List.of("urgente"), null));
+    }
+
+    @Test
+    void deveRemoverTarefa() {
+        indice.remover(2L);
+
+        assertEquals(3, indice.contar(null, null, null));
+        assertEquals(1, indice.contar(null, List.of("trabalho"), null));
+    }
+
+    @Test
+    void deveReconstruirAPartirDoBanco() {
+        when(repository.findIdsEStatus()).thenReturn(List.of(
+                new Object[]{10L, "Pendente"}, new Object[]{11L, "Concluída"}));
+        when(repository.findIdsETags()).thenReturn(List.<Object[]>of(new Object[]{11L, "casa"}));
+
+        indice.reconstruir();
+
+        assertEquals(2, indice.contar(null, null, null));
+        assertArrayEquals(new long[]{11}, indice.filtrar(null, List.of("casa"), null).toArray());
+    }
+
+    @Test
+    void deveAceitarIdsAcimaDe32Bits() {
+        long idGrande = Integer.MAX_VALUE + 10L;
+        indice.registrar(criarTarefa(idGrande, "Pendente", "casa"));
+
+        assertEquals(3, indice.contar(List.of("Pendente"), null, null));
+        assertEquals(List.of(idGrande, 4L), TarefaIndiceBitmap.paginar(indice.filtrar(null, List.of("casa"), null), 0, 2, false));
+
+        indice.remover(idGrande);
+        assertEquals(4, indice.contar(null, null, null));
+    }
+
+    @Test
+    void deveRejeitarConsultasAntesDaPrimeiraReconstrucao() {
+        TarefaIndiceBitmap novo = new TarefaIndiceBitmap();
+        novo.registrar(criarTarefa(1L, "Pendente"));
+
+        assertThrows(IndiceIndisponivelException.class, () -> novo.contar(null, null, null));
+    }
+
+    @Test
+    void devePaginarEmOrdemAscendenteEDescendente() {
+        Roaring64NavigableMap ids = Roaring64NavigableMap.bitmapOf(1, 2, 3, 4, 5);
+
+        assertEquals(List.of(3L, 4L), TarefaIndiceBitmap.paginar(ids, 1, 2, true));
+        assertEquals(List.of(5L, 4L), TarefaIndiceBitmap.paginar(ids, 0, 2, false));
+        assertEquals(List.of(1L), TarefaIndiceBitmap.paginar(ids, 2, 2, false));
+        assertTrue(TarefaIndiceBitmap.paginar(ids, 3, 2, true).isEmpty());
+    }
+}
@@ -1,15 +1,28 @@
 package com.mvhespanholo.taskzen.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mvhespanholo.taskzen.exception.PaginacaoInvalidaException;
+import com.mvhespanholo.taskzen.filtro.ConsultaFiltro;
+import com.mvhespanholo.taskzen.filtro.FiltroCompilador;
+import com.mvhespanholo.taskzen.filtro.PlanoConsulta;
+import com.mvhespanholo.taskzen.model.PaginaTarefas;
 import com.mvhespanholo.taskzen.model.Tarefa;
 import com.mvhespanholo.taskzen.repository.TarefaRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
+import org.roaringbitmap.longlong.Roaring64NavigableMap;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -23,6 +36,18 @@ class TarefaServiceTest {
     @Mock
     private TarefaRepository repository;
 
+    @Mock
+    private TarefaBufferEscrita bufferEscrita;
+
+    @Mock
+    private TarefaIndiceBitmap indice;
+
+    @Spy
+    private TravasPorTarefa travas = new TravasPorTarefa();
+
+    @Mock
+    private FiltroCompilador filtroCompilador;
+
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
@@ -82,4 +107,219 @@ class TarefaServiceTest {
         assertEquals(1, resultado.size());
         verify(repository).findAll(any(Sort.class));
     }
+
+    @Test
+    void deveBuscarPaginaOrdenadaComDesempatePorId() {
+        List<Tarefa> pagina = Arrays.asList(new Tarefa());
+        when(repository.buscarPagina(any(Specification.class), any(Sort.class), eq(200), eq(100))).thenReturn(pagina);
+
+        List<Tarefa> resultado = service.filtrarTarefas("Pendente", null, "asc", 200, 100);
+
+        assertEquals(pagina, resultado);
+        verify(repository).buscarPagina(any(Specification.class), eq(Sort.by(Sort.Direction.ASC, "dataCriacao", "id")), eq(200), eq(100));
+    }
+
+    @Test
+    void deveCriarTarefasEmLoteERegistrarNoIndice() {
+        Tarefa tarefa1 = new Tarefa();
+        tarefa1.setId(1L);
+        Tarefa tarefa2 = new Tarefa();
+        tarefa2.setId(2L);
+        List<Tarefa> tarefas = List.of(tarefa1, tarefa2);
+        when(repository.saveAll(tarefas)).thenReturn(tarefas);
+
+        List<Tarefa> resultado = service.criarTarefas(tarefas);
+
+        assertEquals(2, resultado.size());
+        verify(repository).saveAll(tarefas);
+        verify(indice).registrar(tarefa1);
+        verify(indice).registrar(tarefa2);
+    }
+
+    @Test
+    void deveIgnorarIdInformadoPeloClienteAoCriar() {
+        Tarefa tarefa = new Tarefa();
+        tarefa.setId(42L);
+        Tarefa emLote = new Tarefa();
+        emLote.setId(43L);
+        when(repository.save(tarefa)).thenReturn(tarefa);
+        when(repository.saveAll(anyList())).thenAnswer(invocacao -> invocacao.getArgument(0));
+
+        service.criarTarefa(tarefa);
+        service.criarTarefas(List.of(emLote));
+
+        assertNull(tarefa.getId());
+        assertNull(emLote.getId());
+    }
+
+    @Test
+    void deveEnfileirarAtualizacaoAssincrona() {
+        Tarefa tarefa = new Tarefa();
+
+        service.atualizarTarefaAssincrona(1L, tarefa);
+
+        verify(bufferEscrita).enfileirar(1L, tarefa);
+        verify(repository, never()).save(any(Tarefa.class));
+    }
+
+    @Test
+    void deveDescartarAtualizacaoPendenteAoAtualizarDeFormaSincrona() {
+        Tarefa tarefa = new Tarefa();
+        when(repository.findById(1L)).thenReturn(Optional.of(tarefa));
+        when(repository.save(tarefa)).thenReturn(tarefa);
+
+        service.atualizarTarefa(1L, new Tarefa());
+
+        // O descarte precede a leitura para aguardar um lote assíncrono em andamento
+        InOrder ordem = inOrder(bufferEscrita, repository);
+        ordem.verify(bufferEscrita).descartar(1L);
+        ordem.verify(repository).findById(1L);
+        ordem.verify(repository).save(tarefa);
+        verify(indice).registrar(tarefa);
+    }
+
+    @Test
+    void deveManterTagsQuandoPutNaoInformaTags() throws Exception {
+        Tarefa persistida = new Tarefa();
+        persistida.setTags(new HashSet<>(Set.of("casa", "urgente")));
+        Set<String> colecaoGerenciada = persistida.getTags();
+        when(repository.findById(1L)).thenReturn(Optional.of(persistida));
+        when(repository.save(persistida)).thenReturn(persistida);
+        Tarefa corpo = new ObjectMapper().readValue("{\"nome\":\"Estudar\",\"status\":\"Concluída\"}", Tarefa.class);
+
+        service.atualizarTarefa(1L, corpo);
+
+        assertSame(colecaoGerenciada, persistida.getTags());
+        assertEquals(Set.of("casa", "urgente"), persistida.getTags());
+        assertEquals("Concluída", persistida.getStatus());
+    }
+
+    @Test
+    void deveAplicarTagsAssincronasPendentesQuandoPutNaoInformaTags() {
+        Tarefa persistida = new Tarefa();
+        persistida.setTags(new HashSet<>(Set.of("casa")));
+        when(bufferEscrita.descartar(1L)).thenReturn(Set.of("casa", "urgente"));
+        when(repository.findById(1L)).thenReturn(Optional.of(persistida));
+        when(repository.save(persistida)).thenReturn(persistida);
+        Tarefa corpo = new Tarefa();
+        corpo.setStatus("Concluída");
+
+        service.atualizarTarefa(1L, corpo);
+
+        assertEquals(Set.of("casa", "urgente"), persistida.getTags());
+        assertEquals("Concluída", persistida.getStatus());
+    }
+
+    @Test
+    void deveSubstituirTagsNoLugarQuandoPutInformaTags() {
+        Tarefa persistida = new Tarefa();
+        persistida.setTags(new HashSet<>(Set.of("casa", "urgente")));
+        Set<String> colecaoGerenciada = persistida.getTags();
+        Tarefa corpo = new Tarefa();
+        corpo.setTags(Set.of("urgente", "trabalho"));
+        when(repository.findById(1L)).thenReturn(Optional.of(persistida));
+        when(repository.save(persistida)).thenReturn(persistida);
+
+        service.atualizarTarefa(1L, corpo);
+
+        assertSame(colecaoGerenciada, persistida.getTags());
+        assertEquals(Set.of("urgente", "trabalho"), persistida.getTags());
+    }
+
+    @Test
+    void deveAguardarBufferAntesDeDeletar() {
+        when(repository.existsById(1L)).thenReturn(true);
+
+        service.deletarTarefa(1L);
+
+        InOrder ordem = inOrder(bufferEscrita, repository, indice);
+        ordem.verify(bufferEscrita).descartar(1L);
+        ordem.verify(repository).deleteById(1L);
+        ordem.verify(indice).remover(1L);
+    }
+
+    @Test
+    void deveConsultarTarefasComPlanoCompilado() {
+        ConsultaFiltro consulta = new ConsultaFiltro(new PlanoConsulta("select t from Tarefa t", List.of()), List.of());
+        List<Tarefa> tarefas = Arrays.asList(new Tarefa());
+        when(filtroCompilador.compilar("status = Pendente", "nome", "asc")).thenReturn(consulta);
+        when(repository.executarConsulta(consulta)).thenReturn(tarefas);
+
+        List<Tarefa> resultado = service.consultarTarefas("status = Pendente", "nome", "asc");
+
+        assertEquals(1, resultado.size());
+        verify(repository).executarConsulta(consulta);
+    }
+
+    @Test
+    void deveBuscarApenasIdsDaPaginaNoBanco() {
+        Tarefa tarefa4 = new Tarefa();
+        tarefa4.setId(4L);
+        Tarefa tarefa3 = new Tarefa();
+        tarefa3.setId(3L);
+        when(indice.filtrar(List.of("Pendente"), List.of("casa"), null)).thenReturn(Roaring64NavigableMap.bitmapOf(1, 2, 3, 4));
+        when(repository.findAllById(List.of(4L, 3L))).thenReturn(List.of(tarefa3, tarefa4));
+
+        PaginaTarefas resultado = service.buscarTarefas(List.of("Pendente"), List.of("casa"), null, 0, 2, "desc");
+
+        assertEquals(4, resultado.total());
+        assertEquals(List.of(tarefa4, tarefa3), resultado.conteudo());
+        verify(repository).findAllById(List.of(4L, 3L));
+    }
+
+    @Test
+    void deveCorrigirIndiceQuandoTarefaDaPaginaNaoExisteMais() {
+        Tarefa tarefa3 = new Tarefa();
+        tarefa3.setId(3L);
+        Tarefa tarefa2 = new Tarefa();
+        tarefa2.setId(2L);
+        when(indice.filtrar(null, null, null))
+                .thenReturn(Roaring64NavigableMap.bitmapOf(1, 2, 3, 4))
+                .thenReturn(Roaring64NavigableMap.bitmapOf(1, 2, 3));
+        when(repository.findAllById(List.of(4L, 3L))).thenReturn(List.of(tarefa3));
+        when(repository.findAllById(List.of(3L, 2L))).thenReturn(List.of(tarefa3, tarefa2));
+        when(repository.existsById(4L)).thenReturn(false);
+
+        PaginaTarefas resultado = service.buscarTarefas(null, null, null, 0, 2, "desc");
+
+        verify(indice).remover(4L);
+        assertEquals(3, resultado.total());
+        assertEquals(List.of(tarefa3, tarefa2), resultado.conteudo());
+    }
+
+    @Test
+    void deveSerializarGravacaoEIndiceDoMesmoId() throws Exception {
+        Tarefa tarefa = new Tarefa();
+        tarefa.setId(1L);
+        CountDownLatch gravando = new CountDownLatch(1);
+        CountDownLatch liberarGravacao = new CountDownLatch(1);
+        when(repository.findById(1L)).thenReturn(Optional.of(tarefa));
+        when(repository.save(tarefa)).thenAnswer(invocacao -> {
+            gravando.countDown();
+            liberarGravacao.await(5, TimeUnit.SECONDS);
+            return tarefa;
+        });
+        when(repository.existsById(1L)).thenReturn(true);
+
+        CompletableFuture<Tarefa> atualizacao = CompletableFuture.supplyAsync(() -> service.atualizarTarefa(1L, new Tarefa()));
+        assertTrue(gravando.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Void> delecao = CompletableFuture.runAsync(() -> service.deletarTarefa(1L));
+        Thread.sleep(100);
+        assertFalse(delecao.isDone());
+
+        liberarGravacao.countDown();
+        atualizacao.get(5, TimeUnit.SECONDS);
+        delecao.get(5, TimeUnit.SECONDS);
+        // O índice recebe as alterações na ordem em que foram confirmadas
+        InOrder ordem = inOrder(indice, repository);
+        ordem.verify(indice).registrar(tarefa);
+        ordem.verify(repository).deleteById(1L);
+        ordem.verify(indice).remover(1L);
+    }
+
+    @Test
+    void deveRejeitarTamanhoDePaginaInvalido() {
+        assertThrows(PaginacaoInvalidaException.class,
+                () -> service.buscarTarefas(null, null, null, 0, 0, "desc"));
+    }
 }